@@ -0,0 +1,51 @@
+package benchmarks;
+
+import helpers.ConfigContainer;
+import helpers.ScenarioContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки доступа к параметрам сценария в ConfigContainer: строковый доступ и типизированные ключи.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigContainerBenchmark {
+
+    private static final ScenarioContext.Key<Long> DEAL_ID = ScenarioContext.Key.of("typedDealId", Long.class);
+
+    private ConfigContainer config;
+    private int counter;
+
+    @Setup
+    public void setUp() {
+        config = ConfigContainer.getInstance();
+        config.setParameter("dealId", "100500");
+        config.getContext().put(DEAL_ID, 100500L);
+    }
+
+    @Benchmark
+    public String getParameter() {
+        return config.getParameter("dealId");
+    }
+
+    @Benchmark
+    public void setParameter() {
+        config.setParameter("counter", Integer.toString(counter++));
+    }
+
+    @Benchmark
+    public long getTypedParameter() {
+        return config.getContext().getLong(DEAL_ID);
+    }
+
+    @Benchmark
+    public Long setTypedParameter() {
+        return config.getContext().put(DEAL_ID, (long) counter++);
+    }
+}
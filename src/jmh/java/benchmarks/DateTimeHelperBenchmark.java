@@ -0,0 +1,73 @@
+package benchmarks;
+
+import helpers.DateTimeHelper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки DateTimeHelper: печать дат, арифметика рабочих дней, проверка на выходной.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateTimeHelperBenchmark {
+
+    private DateTimeHelper dateTimeHelper;
+    private LocalDateTime holiday;
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup
+    public void setUp() {
+        dateTimeHelper = new DateTimeHelper();
+        holiday = LocalDateTime.of(2023, 2, 23, 12, 0);
+        from = LocalDate.of(2023, 1, 10);
+        to = LocalDate.of(2024, 11, 20);
+    }
+
+    @Benchmark
+    public String dateStampPlusDaysWithoutDayOff() {
+        return dateTimeHelper.dateStampPlusDaysWithoutDayOff(10, "standard");
+    }
+
+    @Benchmark
+    public String dateStampMinusDaysWithoutDayOff() {
+        return dateTimeHelper.dateStampMinusDaysWithoutDayOff(10, "only-date");
+    }
+
+    @Benchmark
+    public String dateStampPlusMonth() {
+        return dateTimeHelper.dateStampPlusMonth(1, "dateTimeUTC");
+    }
+
+    @Benchmark
+    public String getCurrentDateTime() {
+        return dateTimeHelper.getCurrentDateTime("only-date");
+    }
+
+    @Benchmark
+    public String changeDateFormat() {
+        return dateTimeHelper.changeDateFormat("23.02.2023", "dd.MM.yyyy", "yyyy-MM-dd");
+    }
+
+    @Benchmark
+    public boolean isDayOff() {
+        return DateTimeHelper.isDayOff(holiday);
+    }
+
+    @Benchmark
+    public LocalDate plusWorkingDays() {
+        return DateTimeHelper.plusWorkingDays(from, 120);
+    }
+
+    @Benchmark
+    public int countWorkingDays() {
+        return DateTimeHelper.countWorkingDays(from, to);
+    }
+}
@@ -0,0 +1,46 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pages.AbstractPage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки извлечения чисел из текста в AbstractPage (браузер не требуется).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberExtractorBenchmark {
+
+    private AbstractPage page;
+
+    @Setup
+    public void setUp() {
+        page = new AbstractPage() {
+        };
+    }
+
+    @Benchmark
+    public double extractDoubleNumberFromTextRULocale() {
+        return page.extractDoubleNumberFromTextRULocale("Цена: 1 234 567,89 ₽");
+    }
+
+    @Benchmark
+    public double extractNumberFromTextENGLocale() {
+        return page.extractNumberFromTextENGLocale("Price: $1234567.89");
+    }
+
+    @Benchmark
+    public String extractDoubleFromTextInTextView() {
+        return page.extractDoubleFromTextInTextView("Итого 98 765,43 руб");
+    }
+
+    @Benchmark
+    public String extractIntegerFromTextInTextView() {
+        return page.extractIntegerFromTextInTextView("Найдено 1 024 лота");
+    }
+}
@@ -0,0 +1,70 @@
+package benchmarks;
+
+import helpers.DateTimeHelper;
+import helpers.LoggingInitializer;
+import helpers.WaitHelper;
+import org.apache.log4j.PropertyConfigurator;
+import org.openjdk.jmh.annotations.*;
+import pages.CommonPage;
+import pages.Pages;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки создания объекта страницы (браузер не требуется).
+ * <p>
+ * legacyConstruction воспроизводит прежний конструктор AbstractPage: настройка log4j из файла и новые хелперы
+ * при каждом создании страницы. newPage - текущий конструктор, cachedPage - страница из фабрики сценария.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageConstructionBenchmark {
+
+    private boolean createdConfig;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Прежний конструктор перечитывал этот файл; без него настройка log4j сводится к сообщению об ошибке
+        File config = new File(LoggingInitializer.CONFIG_FILE);
+        if (!config.exists()) {
+            config.getParentFile().mkdirs();
+            Files.write(config.toPath(), Arrays.asList(
+                    "log4j.rootLogger=WARN, console",
+                    "log4j.appender.console=org.apache.log4j.ConsoleAppender",
+                    "log4j.appender.console.layout=org.apache.log4j.PatternLayout",
+                    "log4j.appender.console.layout.ConversionPattern=%d %p %c - %m%n"), StandardCharsets.UTF_8);
+            createdConfig = true;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Pages.clear();
+        if (createdConfig) new File(LoggingInitializer.CONFIG_FILE).delete();
+    }
+
+    @Benchmark
+    public Object legacyConstruction() {
+        PropertyConfigurator.configure(LoggingInitializer.CONFIG_FILE);
+        return new Object[]{new DateTimeHelper(), new WaitHelper(), new CommonPage()};
+    }
+
+    @Benchmark
+    public CommonPage newPage() {
+        return new CommonPage();
+    }
+
+    @Benchmark
+    public CommonPage cachedPage() {
+        return Pages.get(CommonPage.class);
+    }
+}
@@ -0,0 +1,73 @@
+package benchmarks;
+
+import helpers.DateTimeHelper;
+import org.openjdk.jmh.annotations.*;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки извлечения значений из XML-ответа (AbstractHelper.getValueFromXML): потоковый разбор против прежнего
+ * построения DOM на каждое значение, десять значений по одному и за один проход.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XmlValueBenchmark {
+
+    @Param({"10", "1000"})
+    public int items;
+
+    private static final String[] TEN_FIELDS = {"status", "f1", "f2", "f3", "f4", "f5", "f6", "f7", "f8", "total"};
+
+    private DateTimeHelper helper;
+    private String response;
+
+    @Setup
+    public void setUp() {
+        helper = new DateTimeHelper();
+        StringBuilder xml = new StringBuilder("<response><status>OK</status>");
+        for (int i = 1; i <= 8; i++) xml.append("<f").append(i).append('>').append(i).append("</f").append(i).append('>');
+        xml.append("<items>");
+        for (int i = 0; i < items; i++)
+            xml.append("<item><id>").append(i).append("</id><name>Лот ").append(i).append("</name></item>");
+        xml.append("</items><total>").append(items).append("</total></response>");
+        response = xml.toString();
+    }
+
+    @Benchmark
+    public String firstValue() throws Exception {
+        return helper.getValueFromXML("status", response);
+    }
+
+    @Benchmark
+    public String lastValue() throws Exception {
+        return helper.getValueFromXML("total", response);
+    }
+
+    @Benchmark
+    public String lastValueLegacyDom() throws Exception {
+        Element element = (Element) DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new InputSource(new StringReader(response))).getElementsByTagName("total").item(0);
+        return helper.getCharacterDataFromElement(element);
+    }
+
+    @Benchmark
+    public int tenValuesSeparately() throws Exception {
+        int length = 0;
+        for (String field : TEN_FIELDS) length += helper.getValueFromXML(field, response).length();
+        return length;
+    }
+
+    @Benchmark
+    public Map<String, String> tenValuesOnePass() {
+        return helper.getValuesFromXML(response, TEN_FIELDS);
+    }
+}
@@ -0,0 +1,178 @@
+package aspects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.openqa.selenium.json.Json;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Замеры методов страниц и хелперов за один сценарий: количество вызовов, перцентили времени выполнения
+ * (p50/p95/p99/max) и количество команд WebDriver, отправленных внутри метода (включая вложенные вызовы).
+ * <p>
+ * Сбор ведётся в потоке сценария. По окончании сценария результат дописывается одной JSON-строкой в файл
+ * {@link #OUTPUT} (рядом с target/cucumber.json); файл перезаписывается при первом сценарии запуска.
+ */
+public final class MethodTimings {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    public static final Logger logger = LoggerFactory.getLogger(MethodTimings.class);
+
+    public static final String OUTPUT = "target/method-timings.jsonl";
+
+    private static final ThreadLocal<MethodTimings> current = new ThreadLocal<>();
+    private static final Json json = new Json();
+    private static final Object outputLock = new Object();
+    // Файл уже перезаписан в текущем запуске (доступ под outputLock)
+    private static boolean outputStarted = false;
+
+    private final String scenario;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, MethodStat> methods = new HashMap<>();
+    private long commands;
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    private MethodTimings(String scenario) {
+        this.scenario = scenario;
+    }
+
+    /**
+     * Начинает сбор замеров для сценария в текущем потоке.
+     *
+     * @param scenario название сценария
+     */
+    public static void start(String scenario) {
+        current.set(new MethodTimings(scenario));
+    }
+
+    /**
+     * @return замеры текущего сценария или null, если сбор не начат
+     */
+    public static MethodTimings current() {
+        return current.get();
+    }
+
+    /**
+     * Завершает сбор замеров в текущем потоке и дописывает результат в {@link #OUTPUT}.
+     *
+     * @param status статус сценария
+     */
+    public static void finish(String status) {
+        MethodTimings timings = current.get();
+        if (timings == null) return;
+        current.remove();
+        String line = json.toJson(timings.toReport(status)).replace('\n', ' ');
+        synchronized (outputLock) {
+            File output = new File(OUTPUT);
+            output.getParentFile().mkdirs();
+            try (Writer writer = Files.newBufferedWriter(output.toPath(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    outputStarted ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+                writer.write(line);
+                writer.write(System.lineSeparator());
+                outputStarted = true;
+            } catch (IOException e) {
+                logger.warn(">>> (timings) Не удалось записать замеры в {}: {}", OUTPUT, e.toString());
+                return;
+            }
+        }
+        logger.info(">>> (timings) Сценарий [{}]: методов - {}, команд WebDriver - {}, замеры в {}",
+                timings.scenario, timings.methods.size(), timings.commands, OUTPUT);
+    }
+
+    /**
+     * Учитывает одну команду WebDriver.
+     */
+    void command() {
+        commands++;
+    }
+
+    /**
+     * @return количество команд WebDriver с начала сценария
+     */
+    long getCommands() {
+        return commands;
+    }
+
+    /**
+     * Учитывает один вызов метода.
+     */
+    void record(String method, long nanos, long methodCommands) {
+        MethodStat stat = methods.get(method);
+        if (stat == null) methods.put(method, stat = new MethodStat());
+        stat.add(nanos, methodCommands);
+    }
+
+    private Map<String, Object> toReport(String status) {
+        List<Map<String, Object>> rows = new ArrayList<>(methods.size());
+        List<Map.Entry<String, MethodStat>> entries = new ArrayList<>(methods.entrySet());
+        // Сначала методы с наибольшим суммарным временем
+        entries.sort((a, b) -> Long.compare(b.getValue().total, a.getValue().total));
+        for (Map.Entry<String, MethodStat> entry : entries) {
+            MethodStat stat = entry.getValue();
+            long[] sorted = Arrays.copyOf(stat.samples, stat.count);
+            Arrays.sort(sorted);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("method", entry.getKey());
+            row.put("calls", stat.count);
+            row.put("webDriverCommands", stat.commands);
+            row.put("totalMs", toMs(stat.total));
+            row.put("p50Ms", toMs(percentile(sorted, 0.50)));
+            row.put("p95Ms", toMs(percentile(sorted, 0.95)));
+            row.put("p99Ms", toMs(percentile(sorted, 0.99)));
+            row.put("maxMs", toMs(sorted[sorted.length - 1]));
+            rows.add(row);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("scenario", scenario);
+        report.put("status", status);
+        report.put("wallMs", toMs(System.nanoTime() - startNanos));
+        report.put("webDriverCommands", commands);
+        report.put("methods", rows);
+        return report;
+    }
+
+    // Перцентиль по методу ближайшего ранга
+    private static long percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static double toMs(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+
+    /**
+     * Замеры одного метода.
+     */
+    private static final class MethodStat {
+        private long[] samples = new long[8];
+        private int count;
+        private long total;
+        private long commands;
+
+        private void add(long nanos, long methodCommands) {
+            if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+            samples[count++] = nanos;
+            total += nanos;
+            commands += methodCommands;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package aspects;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Замер времени выполнения публичных методов страниц (наследников pages.AbstractPage) и классов пакета helpers,
+ * а также подсчёт команд WebDriver.
+ * <p>
+ * Аспект вплетается при загрузке классов javaagent aspectjweaver (см. META-INF/aop.xml). Замеры накапливаются
+ * в {@link MethodTimings} текущего потока и только между {@link MethodTimings#start} и {@link MethodTimings#finish};
+ * вне сценария аспект лишь проверяет, начат ли сбор.
+ */
+@Aspect
+public class TimingAspect {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    // Имена методов по точкам вплетения, чтобы не формировать строку при каждом вызове
+    private static final ConcurrentHashMap<JoinPoint.StaticPart, String> names = new ConcurrentHashMap<>();
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    @Pointcut("execution(public * pages.AbstractPage+.*(..))")
+    public void pageMethod() {
+    }
+
+    @Pointcut("execution(public * helpers..*.*(..))")
+    public void helperMethod() {
+    }
+
+    @Pointcut("execution(org.openqa.selenium.remote.Response org.openqa.selenium.remote.RemoteWebDriver.execute(" +
+            "org.openqa.selenium.remote.CommandPayload))")
+    public void webDriverCommand() {
+    }
+
+    @Around("pageMethod() || helperMethod()")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodTimings timings = MethodTimings.current();
+        if (timings == null) return joinPoint.proceed();
+        long commands = timings.getCommands();
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timings.record(nameOf(joinPoint.getStaticPart()), System.nanoTime() - start, timings.getCommands() - commands);
+        }
+    }
+
+    @Before("webDriverCommand()")
+    public void countCommand() {
+        MethodTimings timings = MethodTimings.current();
+        if (timings != null) timings.command();
+    }
+
+    private static String nameOf(JoinPoint.StaticPart part) {
+        String name = names.get(part);
+        if (name != null) return name;
+        MethodSignature signature = (MethodSignature) part.getSignature();
+        name = signature.getDeclaringType().getSimpleName() + "." + signature.getName();
+        names.putIfAbsent(part, name);
+        return name;
+    }
+}
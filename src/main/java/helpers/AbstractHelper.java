@@ -1,23 +1,52 @@
 package helpers;
 
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.w3c.dom.*;
 import org.xml.sax.InputSource;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
 import java.io.IOException;
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
 
 public abstract class AbstractHelper {
 
-    protected Logger logger = LogManager.getLogger(WebDriverContainer.class);
+    protected Logger logger = LoggerFactory.getLogger(WebDriverContainer.class);
     protected ConfigContainer config = ConfigContainer.getInstance();
 
+    // Максимальное количество кэшируемых xpath-выражений на поток
+    private static final int MAX_CACHED_XPATHS = 256;
+
+    // DocumentBuilder и XPath не потокобезопасны - экземпляры создаются один раз на поток из общих фабрик
+    private static final DocumentBuilderFactory documentBuilderFactory = createDocumentBuilderFactory();
+    private static final XPathFactory xpathFactory = XPathFactory.newInstance();
+    private static final ThreadLocal<DocumentBuilder> documentBuilder = ThreadLocal.withInitial(() -> {
+        try {
+            synchronized (documentBuilderFactory) {
+                return documentBuilderFactory.newDocumentBuilder();
+            }
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+    private static final ThreadLocal<XPath> xpath = ThreadLocal.withInitial(() -> {
+        synchronized (xpathFactory) {
+            return xpathFactory.newXPath();
+        }
+    });
+    private static final ThreadLocal<Map<String, XPathExpression>> xpathCache = ThreadLocal.withInitial(HashMap::new);
+
 
 
 
@@ -30,17 +59,71 @@ public abstract class AbstractHelper {
         return "?";
     }
 
+    /**
+     * Разбирает XML в DOM. Используется потоковый экземпляр DocumentBuilder из общей фабрики с отключёнными
+     * внешними сущностями; для извлечения значений элементов DOM не нужен - см. {@link #getValueFromXML}.
+     */
     public Document getXMLFromString(String xml) throws Exception {
-        DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-        Document document = builder.parse(new InputSource(new StringReader(xml)));
-        return document;
+        DocumentBuilder builder = documentBuilder.get();
+        builder.reset();
+        return builder.parse(new InputSource(new StringReader(xml)));
     }
 
+    /**
+     * Возвращает текст первого элемента с указанным именем ("?", если у элемента нет текста).
+     * XML разбирается потоково до найденного элемента, см. {@link XmlValueExtractor}.
+     *
+     * @param name     имя элемента ("total", "ns:total") или путь ("items/item/id")
+     * @param response текст XML
+     */
     public String getValueFromXML(String name, String response) throws Exception {
-        Document doc = getXMLFromString(response);
-        NodeList nodes = doc.getElementsByTagName(name);
-        Element line = (Element) nodes.item(0);
-        return getCharacterDataFromElement(line);
+        return XmlValueExtractor.value(response, name);
+    }
+
+    /**
+     * Возвращает тексты первых элементов с указанными именами за один разбор XML.
+     *
+     * @param response текст XML
+     * @param names    имена или пути элементов
+     * @return значения в порядке запроса; ненайденные элементы в результат не попадают
+     */
+    public Map<String, String> getValuesFromXML(String response, String... names) {
+        return XmlValueExtractor.values(response, names);
+    }
+
+    /**
+     * Вычисляет xpath-выражение над XML (для случаев, когда нужен DOM: условия, функции, оси).
+     * Скомпилированные выражения кэшируются в пределах потока.
+     *
+     * @param expression xpath-выражение
+     * @param response   текст XML
+     * @return строковое значение выражения
+     */
+    public String getValueByXPath(String expression, String response) throws Exception {
+        return compiledXPath(expression).evaluate(getXMLFromString(response));
+    }
+
+    private static XPathExpression compiledXPath(String expression) throws XPathExpressionException {
+        Map<String, XPathExpression> cache = xpathCache.get();
+        XPathExpression compiled = cache.get(expression);
+        if (compiled == null) {
+            compiled = xpath.get().compile(expression);
+            if (cache.size() < MAX_CACHED_XPATHS) cache.put(expression, compiled);
+        }
+        return compiled;
+    }
+
+    private static DocumentBuilderFactory createDocumentBuilderFactory() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        try {
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Парсер XML не поддерживает отключение внешних сущностей", e);
+        }
+        factory.setXIncludeAware(false);
+        return factory;
     }
 
     public String readFileToString(String path) throws IOException {
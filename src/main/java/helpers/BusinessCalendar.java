@@ -0,0 +1,202 @@
+package helpers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Производственный календарь с предрасчитанным индексом по годам.
+ * <p>
+ * Для каждого года строится битовая маска выходных дней, префиксная сумма рабочих дней и таблица порядковых номеров
+ * рабочих дней. Проверка на выходной, поиск ближайшего рабочего дня и сдвиг на N рабочих дней внутри года выполняются
+ * за константное время, при переходе через границу года - за время, пропорциональное количеству затронутых лет.
+ * <p>
+ * Выходными считаются суббота, воскресенье и дни из списка праздников; рабочие дни из списка переносов (рабочие
+ * субботы) выходными не считаются. Данные года загружаются из {@link HolidayCalendarSource} и индекс строится
+ * при первом обращении к году, далее не изменяется и используется всеми потоками.
+ */
+public final class BusinessCalendar {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    public static final Logger logger = LoggerFactory.getLogger(BusinessCalendar.class);
+
+    // Календари по регионам, общие для всех потоков
+    private static final ConcurrentHashMap<String, BusinessCalendar> regions = new ConcurrentHashMap<>();
+
+    private final HolidayCalendarSource source;
+    private final ConcurrentHashMap<Integer, YearIndex> years = new ConcurrentHashMap<>();
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    /**
+     * @param source источник праздников и переносов рабочих дней
+     */
+    public BusinessCalendar(HolidayCalendarSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Возвращает общий календарь региона. Календари читаются из каталога, заданного настройкой HolidayCalendarPath
+     * (если задана), иначе из ресурсов calendars/[region]/[year].txt.
+     *
+     * @param region регион календаря, например "ru"
+     * @return календарь региона
+     */
+    public static BusinessCalendar forRegion(String region) {
+        BusinessCalendar calendar = regions.get(region);
+        return calendar != null ? calendar : regions.computeIfAbsent(region, key -> new BusinessCalendar(
+                new HolidayCalendarFiles(key, ConfigContainer.getInstance().getConfigProperty("HolidayCalendarPath", null))));
+    }
+
+    /**
+     * @return true, если дата является выходным или праздничным днём
+     */
+    public boolean isDayOff(LocalDate date) {
+        return yearOf(date.getYear()).isDayOff(date.getDayOfYear() - 1);
+    }
+
+    /**
+     * @return указанная дата, если она рабочая, иначе ближайший следующий рабочий день
+     */
+    public LocalDate nextWorkingDay(LocalDate date) {
+        YearIndex index = yearOf(date.getYear());
+        int before = index.prefix[date.getDayOfYear() - 1];
+        while (before >= index.workingDays.length) {
+            index = yearOf(index.year + 1);
+            before = 0;
+        }
+        return index.dateOf(before);
+    }
+
+    /**
+     * @return указанная дата, если она рабочая, иначе ближайший предыдущий рабочий день
+     */
+    public LocalDate previousWorkingDay(LocalDate date) {
+        YearIndex index = yearOf(date.getYear());
+        int upTo = index.prefix[date.getDayOfYear()];
+        while (upTo == 0) {
+            index = yearOf(index.year - 1);
+            upTo = index.workingDays.length;
+        }
+        return index.dateOf(upTo - 1);
+    }
+
+    /**
+     * Сдвигает дату на указанное количество рабочих дней. При days = 0 возвращает ближайший рабочий день
+     * (указанную дату, если она рабочая).
+     *
+     * @param date исходная дата
+     * @param days количество рабочих дней (отрицательное значение - сдвиг назад)
+     * @return дата, отстоящая от исходной на указанное количество рабочих дней
+     */
+    public LocalDate plusWorkingDays(LocalDate date, int days) {
+        if (days == 0) return nextWorkingDay(date);
+        YearIndex index = yearOf(date.getYear());
+        if (days > 0) {
+            // Порядковый номер искомого рабочего дня внутри года (с нуля)
+            long target = (long) index.prefix[date.getDayOfYear()] + days - 1;
+            while (target >= index.workingDays.length) {
+                target -= index.workingDays.length;
+                index = yearOf(index.year + 1);
+            }
+            return index.dateOf((int) target);
+        }
+        long target = (long) index.prefix[date.getDayOfYear() - 1] + days;
+        while (target < 0) {
+            index = yearOf(index.year - 1);
+            target += index.workingDays.length;
+        }
+        return index.dateOf((int) target);
+    }
+
+    /**
+     * Считает рабочие дни в интервале [from, to). Если to раньше from, результат отрицательный.
+     *
+     * @param from начало интервала (включительно)
+     * @param to   конец интервала (не включительно)
+     * @return количество рабочих дней
+     */
+    public int countWorkingDays(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) return -countWorkingDays(to, from);
+        YearIndex index = yearOf(from.getYear());
+        int count = -index.prefix[from.getDayOfYear() - 1];
+        while (index.year < to.getYear()) {
+            count += index.workingDays.length;
+            index = yearOf(index.year + 1);
+        }
+        return count + index.prefix[to.getDayOfYear() - 1];
+    }
+
+    private YearIndex yearOf(int year) {
+        YearIndex index = years.get(year);
+        return index != null ? index : years.computeIfAbsent(year, this::buildYear);
+    }
+
+    private YearIndex buildYear(int year) {
+        HolidayYear data = source.load(year);
+        if (data == null) {
+            logger.warn("(calendar) Нет производственного календаря на {} год: выходными считаются только " +
+                    "суббота и воскресенье", year);
+        }
+        Set<LocalDate> daysOff = data != null ? data.getDaysOff() : Collections.<LocalDate>emptySet();
+        Set<LocalDate> workingDays = data != null ? data.getWorkingDays() : Collections.<LocalDate>emptySet();
+
+        int length = Year.of(year).length();
+        LocalDate first = LocalDate.of(year, 1, 1);
+        long[] bits = new long[(length + 63) / 64];
+        short[] prefix = new short[length + 1];
+        short[] ordinals = new short[length];
+        int working = 0;
+        for (int day = 0; day < length; day++) {
+            LocalDate date = first.plusDays(day);
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            boolean weekend = dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+            boolean off = daysOff.contains(date) || (weekend && !workingDays.contains(date));
+            if (off) bits[day >>> 6] |= 1L << day;
+            else ordinals[working++] = (short) day;
+            prefix[day + 1] = (short) working;
+        }
+        short[] workingDayOrdinals = new short[working];
+        System.arraycopy(ordinals, 0, workingDayOrdinals, 0, working);
+        return new YearIndex(year, bits, prefix, workingDayOrdinals);
+    }
+
+    /**
+     * Неизменяемый индекс одного года.
+     */
+    private static final class YearIndex {
+        private final int year;
+        // Бит (день года - 1) установлен, если день выходной
+        private final long[] daysOff;
+        // prefix[i] - количество рабочих дней среди первых i дней года
+        private final short[] prefix;
+        // workingDays[k] - (день года - 1) для k-го рабочего дня
+        private final short[] workingDays;
+
+        private YearIndex(int year, long[] daysOff, short[] prefix, short[] workingDays) {
+            this.year = year;
+            this.daysOff = daysOff;
+            this.prefix = prefix;
+            this.workingDays = workingDays;
+        }
+
+        private boolean isDayOff(int day) {
+            return (daysOff[day >>> 6] & (1L << day)) != 0;
+        }
+
+        private LocalDate dateOf(int workingDayOrdinal) {
+            return LocalDate.ofYearDay(year, workingDays[workingDayOrdinal] + 1);
+        }
+    }
+}
@@ -1,13 +1,14 @@
 package helpers;
 
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
-import org.junit.Assert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.nio.charset.Charset;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 /**
  * Содержит настройки тестовой среды общие для всех тестов.
@@ -16,21 +17,29 @@ import java.util.*;
  * <p>
  * public String getFakeEmailAddress()
  * {
- * return properties.getProperty("FakeEmailAddress");
+ * return getConfigProperty("FakeEmailAddress");
  * }
  * <p>
  * Если параметр теста планируется изменять в ходе теста (передача данных между шагами) то его следует объвить как
  * private-поле класса с соответствующими public-методами доступа get и set.
  * <p>
+ * Настройки тестовой среды читаются один раз на JVM в общий неизменяемый снимок {@link ConfigSnapshot};
+ * экземпляр сценария хранит только настройки, дополнительно загруженные методом {@link #loadConfig(String)}.
  */
 public class ConfigContainer implements Serializable {
     /**
      * Константы класса
      */
-    public static final Logger logger = LogManager.getLogger(ConfigContainer.class);
+    public static final Logger logger = LoggerFactory.getLogger(ConfigContainer.class);
 
-    // Относительный путь к файлу с настройками тестовой среды (параметризованный конфигурационный файл)
-    private static final String PROPERTIES_FILE_NAME = "target/test-classes/config.properties";
+    // Каталог временных папок сценариев (папок загрузки файлов) относительно рабочего каталога
+    public static final String TEMP_FOLDERS_DIRECTORY = "target/temp";
+
+    // Имя временной папки сценария: temp[дата и время]_[id потока]_[счётчик], см. generatePathToTempFolder
+    public static final Pattern TEMP_FOLDER_NAME = Pattern.compile("temp\\d+_\\d+_\\d+");
+
+    // Имя временной папки прежних версий: temp[ddMMyyyyHHmm][миллисекунды, 2-3 цифры] в рабочем каталоге
+    public static final Pattern LEGACY_TEMP_FOLDER_NAME = Pattern.compile("temp\\d{14,15}");
 
     // Путь к временной папке со случайно сгенерированным именем
     private String pathToTempFolderWithRandomName;
@@ -41,15 +50,19 @@ public class ConfigContainer implements Serializable {
      *
      ******************************************************************************************************************/
 
-    // Статический экземпляр этого класса (собственно сам ConfigContainer)
-    private static volatile ConfigContainer instance;
+    // Экземпляры этого класса по одному на поток. Каждый сценарий выполняется в своём потоке, поэтому при
+    // параллельном запуске у каждого сценария свои параметры и своя временная папка.
+    private static final ThreadLocal<ConfigContainer> instances = ThreadLocal.withInitial(ConfigContainer::new);
 
-    // Настройки тестовой среды (считываются из файла config.properties и используются во всех тестовых сценариях)
-    private Properties properties = new Properties();
+    // Счётчик временных папок. Гарантирует уникальность пути, даже если сценарии стартуют в одну миллисекунду.
+    private static final AtomicInteger tempFolderCounter = new AtomicInteger();
+
+    // Настройки сценария, загруженные из дополнительных файлов поверх общего снимка настроек
+    private Map<String, String> overrides = Collections.emptyMap();
 
     // Параметры конкретного тестового сценария (id, name и прочее, что генерируется в ходе теста) для передачи между
     // шагами теста. Существуют в памяти только во время выполнения теста.
-    private Map<String, String> parameters = new HashMap<>();
+    private final ScenarioContext context = new ScenarioContext();
 
     /******************************************************************************************************************
      *
@@ -58,19 +71,28 @@ public class ConfigContainer implements Serializable {
      *****************************************************************************************************************/
 
     /**
-     * @return экземпляр этого класса (синглтон).
+     * @return экземпляр этого класса, принадлежащий текущему потоку (сценарию).
      */
-    public static synchronized ConfigContainer getInstance() {
-        if (instance == null) {
-            synchronized (ConfigContainer.class) {
-                instance = new ConfigContainer();
-            }
-        }
-        return instance;
+    public static ConfigContainer getInstance() {
+        return instances.get();
+    }
+
+    /**
+     * Освобождает экземпляр текущего потока. Вызывается по завершении сценария, чтобы следующий сценарий,
+     * выполняемый в этом же потоке, начинал с пустым набором параметров.
+     */
+    public static void removeInstance() {
+        instances.remove();
     }
 
+    /**
+     * @return копия настроек тестовой среды (изменения копии не влияют на настройки)
+     */
     public Properties getProperties() {
-        return this.properties;
+        Properties properties = new Properties();
+        properties.putAll(ConfigSnapshot.get().asMap());
+        properties.putAll(overrides);
+        return properties;
     }
 
     //Метод преобразовывает кодировку ISO-8859-1 в UTF8. Нужен для правильного восприятия параметров на русском языке.
@@ -84,19 +106,29 @@ public class ConfigContainer implements Serializable {
         return new String(stringBytes, Charset.forName("windows-1251"));
     }
 
-    // region Относительный путь к файлу с настройками тестовой среды
-    private String getPropertiesFileName() {
-        return PROPERTIES_FILE_NAME;
-    }
-
-    // endregion
+    /**
+     * Возвращает значение настройки на русском языке. Файл настроек читается в кодировке UTF-8, поэтому значение
+     * не требует перекодирования; метод сохранён для совместимости.
+     */
     public String getConfigPropertyWithEncode(String key) {
-        return encodeToUTF8(properties.getProperty(key));
+        return getConfigProperty(key);
     }
 
     public String getConfigProperty(String key) {
-        logger.info("(config) Получение значения по ключу: " + key);
-        return properties.getProperty(key);
+        String value = overrides.get(key);
+        return value != null ? value : ConfigSnapshot.get().get(key);
+    }
+
+    /**
+     * Возвращает значение настройки или значение по умолчанию, если настройка не задана.
+     *
+     * @param key          ключ настройки
+     * @param defaultValue значение по умолчанию
+     * @return значение настройки
+     */
+    public String getConfigProperty(String key, String defaultValue) {
+        String value = getConfigProperty(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
     }
 
 
@@ -111,7 +143,7 @@ public class ConfigContainer implements Serializable {
      * @return возвращает ссылку на сайт (текущий стенд)
      */
     String getSiteUrl() {
-        return properties.getProperty("SiteURL");
+        return getConfigProperty("SiteURL");
     }
 
     /******************************************************************************************************************
@@ -122,49 +154,24 @@ public class ConfigContainer implements Serializable {
 
 
     /**
-     * Загружает настройки тестовой среды из файла [config.properties].
+     * Загружает настройки тестовой среды из файла [config.properties]. Файл читается один раз на JVM,
+     * повторные вызовы используют уже загруженный снимок настроек.
      */
     public ConfigContainer loadConfig() {
-        logger.info("(config) Загружает настройки тестовой среды из файла [config.properties].");
-        InputStream input = null;
-        try {
-            input = new FileInputStream(getPropertiesFileName());
-            properties.load(input);
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        } finally {
-            if (input != null) {
-                try {
-                    input.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
-        }
+        ConfigSnapshot.get();
         return this;
     }
 
     /**
-     * Загружает настройки тестовой среды из файла
+     * Загружает настройки тестовой среды из файла. Настройки файла действуют только для текущего сценария
+     * и перекрывают общие.
      *
      * @param path путь к добавляемому конфиг-файлу
      */
     public void loadConfig(String path) {
-        InputStream input = null;
-        try {
-            input = new FileInputStream(path);
-            properties.load(input);
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        } finally {
-            if (input != null) {
-                try {
-                    input.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
-        }
+        Map<String, String> values = new HashMap<>(overrides);
+        ConfigSnapshot.readInto(new File(path), values);
+        overrides = values;
     }
 
     /**
@@ -193,57 +200,45 @@ public class ConfigContainer implements Serializable {
      * Возвращает тестовое имя
      */
     public String getAuctionWithPreferencesTestType() {
-        return properties.getProperty("AuctionWithPreferencesTestType");
+        return getConfigProperty("AuctionWithPreferencesTestType");
     }
 
     // endregion
 
     // region Параметры конкретного тестового сценария
 
+    /**
+     * @return параметры текущего сценария (типизированный доступ)
+     */
+    public ScenarioContext getContext() {
+        return context;
+    }
+
     public void setParameter(String key, String value) {
-        logger.info("  установлен ключ: [" + key + "] и параметр: [" + value + "]");
-
-        // Блокируем возможность записать в параметр значения null или "пустая строка"
-        Assert.assertTrue("  [Ошибка]: Попытка установить значение ключа равно NULL",
-                key != null);
-        Assert.assertTrue("  [Ошибка]: Попытка установить значение параметра = null",
-                value != null);
-        Assert.assertFalse("  [Ошибка]: Попытка установить пустое значение ключа",
-                key.equals(""));
-        Assert.assertFalse(" [Ошибка]: Попытка установить пустое значение параметра",
-                value.equals(""));
-
-        // Защита от "дурака" - перезапись существующего параметра в большинстве случаев признак ошибки в коде
-        if (parameters.get(key) != null) {
-            logger.info("  [ВНИМАНИЕ]: перезапись значения параметра, старое значение: " +
-                    "[" + parameters.get(key) + "], новое значение: [" + value + "]");
+        // Пустые ключ и значение запрещены; перезапись существующего параметра в большинстве случаев признак
+        // ошибки в коде, поэтому о ней сообщается
+        Object previous = context.putString(key, value);
+        if (previous != null && !previous.equals(value)) {
+            logger.info("  [ВНИМАНИЕ]: перезапись значения параметра [{}], старое значение: [{}], новое значение: [{}]",
+                    key, previous, value);
         }
-
-        parameters.put(key, value);
     }
 
     public String getParameter(String key) {
-        // Контролируем переданное значение ключа для поиска параметра (не null и не пустая строка)
-        Assert.assertTrue("  [Ошибка]: значение переданного ключа = null !", key != null);
-        Assert.assertFalse("  [Ошибка]: пустое значение переданного ключа !", key.equals(""));
-
-        String value = parameters.get(key);
-
-        // Контролируем полученное по ключу значение параметра (не null и не пустая строка)
-        logger.info("  получен ключ: <" + key + "> и параметр: <" + value + ">");
-        Assert.assertTrue("  [Ошибка]: значение полученного параметра равно NULL", value != null);
-        Assert.assertFalse("  [Ошибка]: пустое значение полученного параметра", value.equals(""));
-
-        return value;
+        return context.getString(key);
     }
     // endregion
 
 
+    /**
+     * Генерирует путь к временной папке сценария в каталоге {@link #TEMP_FOLDERS_DIRECTORY}. Имя папки
+     * соответствует {@link #TEMP_FOLDER_NAME} - по нему оставшиеся папки находит {@link TempFolderCleaner}.
+     */
     public void generatePathToTempFolder() {
-        String path;
-            path = System.getProperty("user.dir") + "\\temp"
-                    + new SimpleDateFormat("ddMMyyyyHHmmSS").format(new Date());
-        logger.info("(config) Путь к директории для загрузки файлов: " + path);
+        String path = new File(new File(System.getProperty("user.dir"), TEMP_FOLDERS_DIRECTORY), "temp"
+                + new SimpleDateFormat("ddMMyyyyHHmmSS").format(new Date())
+                + "_" + Thread.currentThread().getId() + "_" + tempFolderCounter.incrementAndGet()).getPath();
+        logger.info("(config) Путь к директории для загрузки файлов: {}", path);
         this.pathToTempFolderWithRandomName = path;
     }
 
@@ -260,11 +255,10 @@ public class ConfigContainer implements Serializable {
      * Печатает список всех параметров, использованных в текущем тесте.
      */
     public void printParameters() {
-        logger.info(String.
-                format("=========   С П И С О К   И С П О Л Ь З О В А Н Н Ы Х   П А Р А М Е Т Р О В   [%d]   =========",
-                        parameters.size()));
+        Map<String, String> parameters = context.snapshot();
+        logger.info("=========   С П И С О К   И С П О Л Ь З О В А Н Н Ы Х   П А Р А М Е Т Р О В   [{}]   =========",
+                parameters.size());
         for (Map.Entry<String, String> parameter : parameters.entrySet())
-            logger.info(String.format(
-                    ">>> (printParameters) Ключ: [%s], Значение: [%s].", parameter.getKey(), parameter.getValue()));
+            logger.info(">>> (printParameters) Ключ: [{}], Значение: [{}].", parameter.getKey(), parameter.getValue());
     }
 }
@@ -0,0 +1,216 @@
+package helpers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Неизменяемый снимок настроек тестовой среды, общий для всех потоков.
+ * <p>
+ * Файл config.properties читается один раз на JVM в кодировке UTF-8, поэтому значения на русском языке не требуют
+ * перекодирования при каждом обращении. При загрузке применяются (в порядке возрастания приоритета):
+ * <ul>
+ * <li>config-[профиль].properties рядом с основным файлом, если задан профиль (системное свойство config.profile
+ * или переменная окружения CONFIG_PROFILE);</li>
+ * <li>переменные окружения с именами ключей настроек;</li>
+ * <li>системные свойства с именами ключей настроек, а также системные свойства вида config.[ключ].</li>
+ * </ul>
+ * Чтение настройки - обращение к неизменяемой карте без блокировок. Если задано системное свойство
+ * config.watch=true, файлы отслеживаются фоновым потоком и при изменении снимок атомарно заменяется новым.
+ */
+public final class ConfigSnapshot {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    public static final Logger logger = LoggerFactory.getLogger(ConfigSnapshot.class);
+
+    // Относительный путь к файлу с настройками тестовой среды (параметризованный конфигурационный файл)
+    public static final String PROPERTIES_FILE_NAME = "target/test-classes/config.properties";
+
+    // Префикс системных свойств, переопределяющих любую настройку
+    private static final String SYSTEM_PROPERTY_PREFIX = "config.";
+
+    private static final AtomicReference<ConfigSnapshot> current = new AtomicReference<>();
+    private static Thread watcher;
+
+    private final Map<String, String> values;
+    private final long loadedAt = System.currentTimeMillis();
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    private ConfigSnapshot(Map<String, String> values) {
+        this.values = values;
+    }
+
+    /**
+     * @return текущий снимок настроек (при первом обращении загружает его)
+     */
+    public static ConfigSnapshot get() {
+        ConfigSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : loadOnce();
+    }
+
+    private static synchronized ConfigSnapshot loadOnce() {
+        ConfigSnapshot snapshot = current.get();
+        if (snapshot != null) return snapshot;
+        snapshot = load();
+        current.set(snapshot);
+        if (Boolean.getBoolean("config.watch")) startWatcher();
+        return snapshot;
+    }
+
+    /**
+     * Перечитывает настройки и атомарно заменяет текущий снимок.
+     *
+     * @return новый снимок
+     */
+    public static ConfigSnapshot reload() {
+        ConfigSnapshot snapshot = load();
+        current.set(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * @param key ключ настройки
+     * @return значение настройки или null, если настройка не задана
+     */
+    public String get(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * @return все настройки снимка (неизменяемая карта)
+     */
+    public Map<String, String> asMap() {
+        return values;
+    }
+
+    /**
+     * @return время загрузки снимка (мс с начала эпохи)
+     */
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    private static ConfigSnapshot load() {
+        long start = System.nanoTime();
+        Map<String, String> values = new HashMap<>();
+        File base = new File(PROPERTIES_FILE_NAME);
+        readInto(base, values);
+        String profile = profile();
+        if (profile != null) readInto(profileFile(base, profile), values);
+
+        // Переопределение из окружения и системных свойств
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String env = System.getenv(entry.getKey());
+            if (env != null) entry.setValue(env);
+            String property = System.getProperty(entry.getKey());
+            if (property != null) entry.setValue(property);
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(SYSTEM_PROPERTY_PREFIX) && name.length() > SYSTEM_PROPERTY_PREFIX.length()
+                    && !name.equals("config.profile") && !name.equals("config.watch"))
+                values.put(name.substring(SYSTEM_PROPERTY_PREFIX.length()), System.getProperty(name));
+        }
+        logger.info("(config) Загружено настроек: {} из [{}]{} за {} мс", values.size(), base,
+                profile != null ? ", профиль " + profile : "",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return new ConfigSnapshot(Collections.unmodifiableMap(values));
+    }
+
+    /**
+     * Читает файл настроек в кодировке UTF-8 и добавляет его значения в карту.
+     *
+     * @param file   файл настроек
+     * @param values карта, в которую добавляются значения
+     */
+    static void readInto(File file, Map<String, String> values) {
+        if (!file.exists()) {
+            logger.warn("(config) Файл настроек [{}] не найден", file);
+            return;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            logger.error("(config) Не удалось прочитать файл настроек [{}]: {}", file, e.toString());
+            return;
+        }
+        for (String name : properties.stringPropertyNames()) values.put(name, properties.getProperty(name));
+    }
+
+    private static String profile() {
+        String profile = System.getProperty("config.profile");
+        if (profile == null || profile.trim().isEmpty()) profile = System.getenv("CONFIG_PROFILE");
+        return profile == null || profile.trim().isEmpty() ? null : profile.trim();
+    }
+
+    private static File profileFile(File base, String profile) {
+        String name = base.getName();
+        int dot = name.lastIndexOf('.');
+        return new File(base.getParentFile(), name.substring(0, dot) + "-" + profile + name.substring(dot));
+    }
+
+    /**
+     * Запускает фоновое отслеживание изменений файлов настроек.
+     */
+    private static void startWatcher() {
+        File base = new File(PROPERTIES_FILE_NAME).getAbsoluteFile();
+        Path directory = base.getParentFile().toPath();
+        WatchService service;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            logger.warn("(config) Отслеживание изменений настроек недоступно: {}", e.toString());
+            return;
+        }
+        String profile = profile();
+        String profileName = profile != null ? profileFile(base, profile).getName() : null;
+        watcher = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = service.take();
+                    boolean changed = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        String name = String.valueOf(event.context());
+                        changed |= name.equals(base.getName()) || name.equals(profileName);
+                    }
+                    key.reset();
+                    if (changed) {
+                        // Редактор может сохранять файл в несколько приёмов
+                        Thread.sleep(200);
+                        reload();
+                        logger.info("(config) Файл настроек изменён, настройки перезагружены");
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // Завершение JVM
+            }
+        }, "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+}
@@ -0,0 +1,115 @@
+package helpers;
+
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * Реестр заранее скомпилированных форматов даты.
+ * <p>
+ * DateTimeFormatter неизменяем и потокобезопасен, поэтому каждый формат создаётся один раз и используется всеми
+ * потоками. Именованные форматы создаются при загрузке класса, произвольные шаблоны кэшируются при первом
+ * обращении (не более {@link #MAX_CACHED_PATTERNS}, остальные создаются без кэширования).
+ */
+public final class DateFormatRegistry {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    public static final Locale LOCALE = new Locale("ru");
+
+    // Максимальное количество кэшируемых произвольных шаблонов
+    private static final int MAX_CACHED_PATTERNS = 256;
+
+    private static final Map<String, DateTimeFormatter> named;
+    private static final ConcurrentHashMap<String, DateTimeFormatter> printers = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, DateTimeFormatter> parsers = new ConcurrentHashMap<>();
+
+    static {
+        Map<String, String> pattern = new HashMap<>();
+        pattern.put("more", "dd.MM.yyyy' 'HH:mm:ss:ms");
+        pattern.put("standard", "dd.MM.yyyy' 'HH:mm");
+        pattern.put("_standard", "dd.MM.yyyy' 'HH mm");
+        pattern.put("dateFullMonthAndTime", "dd' 'MMMM', 'HH:mm");
+        pattern.put("dateTimeUTC", "yyyy-MM-dd'T'HH:mm:ss'Z'");
+        pattern.put("dateTimeUTCplus6", "yyyy-MM-dd'T'HH:mm:ss'+06:00'");
+        pattern.put("only-date", "dd.MM.yyyy");
+        pattern.put("only-date2", "yyyy-MM-dd");
+        pattern.put("only-time", "HH:mm");
+        pattern.put("HH", "HH");
+        pattern.put("mm", "mm");
+        pattern.put("onlyYear", "yyyy");
+
+        Map<String, DateTimeFormatter> formatters = new HashMap<>();
+        for (Map.Entry<String, String> entry : pattern.entrySet())
+            formatters.put(entry.getKey(), DateTimeFormatter.ofPattern(entry.getValue(), LOCALE));
+        named = Collections.unmodifiableMap(formatters);
+    }
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    private DateFormatRegistry() {
+    }
+
+    /**
+     * Возвращает именованный формат ("standard", "only-date" и т.д.).
+     *
+     * @param name имя формата
+     * @return формат
+     */
+    public static DateTimeFormatter named(String name) {
+        DateTimeFormatter formatter = named.get(name);
+        if (formatter == null) throw new IllegalArgumentException(format("Неизвестный формат даты: %s", name));
+        return formatter;
+    }
+
+    /**
+     * Возвращает формат для печати по произвольному шаблону.
+     *
+     * @param pattern шаблон DateTimeFormatter
+     * @return формат
+     */
+    public static DateTimeFormatter ofPattern(String pattern) {
+        DateTimeFormatter formatter = printers.get(pattern);
+        if (formatter != null) return formatter;
+        formatter = DateTimeFormatter.ofPattern(pattern, LOCALE);
+        return cache(printers, pattern, formatter);
+    }
+
+    /**
+     * Возвращает формат для разбора даты по произвольному шаблону. Разбор нестрогий, как у SimpleDateFormat:
+     * числовые поля принимают другое количество цифр ("1.2.2023" по шаблону "dd.MM.yyyy"), месяц - полное или
+     * краткое название; отсутствующие в шаблоне месяц и день принимаются равными 1.
+     *
+     * @param pattern шаблон DateTimeFormatter
+     * @return формат
+     */
+    public static DateTimeFormatter parserOf(String pattern) {
+        DateTimeFormatter formatter = parsers.get(pattern);
+        if (formatter != null) return formatter;
+        formatter = new DateTimeFormatterBuilder()
+                .parseLenient()
+                .appendPattern(pattern)
+                .parseDefaulting(ChronoField.MONTH_OF_YEAR, 1)
+                .parseDefaulting(ChronoField.DAY_OF_MONTH, 1)
+                .toFormatter(LOCALE);
+        return cache(parsers, pattern, formatter);
+    }
+
+    private static DateTimeFormatter cache(ConcurrentHashMap<String, DateTimeFormatter> cache, String pattern,
+                                           DateTimeFormatter formatter) {
+        if (cache.size() >= MAX_CACHED_PATTERNS) return formatter;
+        DateTimeFormatter previous = cache.putIfAbsent(pattern, formatter);
+        return previous != null ? previous : formatter;
+    }
+}
@@ -1,15 +1,11 @@
 package helpers;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.text.ParsePosition;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
-import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.*;
 
-import static java.lang.String.format;
 
 
 public class DateTimeHelper extends AbstractHelper {
@@ -20,129 +16,6 @@ public class DateTimeHelper extends AbstractHelper {
      ******************************************************************************************************************/
     private DateTimeFormatter formatter;
     private LocalDateTime dateTime;
-    private Locale locale = new Locale("ru");
-
-    private static List<String> holidays = Arrays.asList(
-            "2023-01-01",
-            "2023-01-02",
-            "2023-01-03",
-            "2023-01-04",
-            "2023-01-05",
-            "2023-01-06",
-            "2023-01-07",
-            "2023-01-08",
-            "2023-01-14",
-            "2023-01-15",
-            "2023-01-21",
-            "2023-01-22",
-            "2023-01-28",
-            "2023-01-29",
-            "2023-02-04",
-            "2023-02-05",
-            "2023-02-11",
-            "2023-02-12",
-            "2023-02-18",
-            "2023-02-19",
-            "2023-02-23",
-            "2023-02-24",
-            "2023-02-25",
-            "2023-02-26",
-            "2023-03-04",
-            "2023-03-05",
-            "2023-03-08",
-            "2023-03-11",
-            "2023-03-12",
-            "2023-03-18",
-            "2023-03-19",
-            "2023-03-25",
-            "2023-03-26",
-            "2023-04-01",
-            "2023-04-02",
-            "2023-04-08",
-            "2023-04-09",
-            "2023-04-15",
-            "2023-04-16",
-            "2023-04-22",
-            "2023-04-23",
-            "2023-04-29",
-            "2023-04-30",
-            "2023-05-01",
-            "2023-05-06",
-            "2023-05-07",
-            "2023-05-08",
-            "2023-05-09",
-            "2023-05-13",
-            "2023-05-14",
-            "2023-05-20",
-            "2023-05-21",
-            "2023-05-27",
-            "2023-05-28",
-            "2023-06-03",
-            "2023-06-04",
-            "2023-06-10",
-            "2023-06-11",
-            "2023-06-12",
-            "2023-06-17",
-            "2023-06-18",
-            "2023-06-24",
-            "2023-06-25",
-            "2023-07-01",
-            "2023-07-02",
-            "2023-07-08",
-            "2023-07-09",
-            "2023-07-15",
-            "2023-07-16",
-            "2023-07-22",
-            "2023-07-23",
-            "2023-07-29",
-            "2023-07-30",
-            "2023-08-05",
-            "2023-08-06",
-            "2023-08-12",
-            "2023-08-13",
-            "2023-08-19",
-            "2023-08-20",
-            "2023-08-26",
-            "2023-08-27",
-            "2023-09-02",
-            "2023-09-03",
-            "2023-09-09",
-            "2023-09-10",
-            "2023-09-16",
-            "2023-09-17",
-            "2023-09-23",
-            "2023-09-24",
-            "2023-09-30",
-            "2023-10-01",
-            "2023-10-07",
-            "2023-10-08",
-            "2023-10-14",
-            "2023-10-15",
-            "2023-10-21",
-            "2023-10-22",
-            "2023-10-28",
-            "2023-10-29",
-            "2023-11-04",
-            "2023-11-05",
-            "2023-11-06",
-            "2023-11-11",
-            "2023-11-12",
-            "2023-11-18",
-            "2023-11-19",
-            "2023-11-25",
-            "2023-11-26",
-            "2023-12-02",
-            "2023-12-03",
-            "2023-12-09",
-            "2023-12-10",
-            "2023-12-16",
-            "2023-12-17",
-            "2023-12-23",
-            "2023-12-24",
-            "2023-12-30",
-            "2023-12-31"
-    );
-
 
     /******************************************************************************************************************
      *                                           Методы класса
@@ -156,20 +29,7 @@ public class DateTimeHelper extends AbstractHelper {
      * @return строку содержащую требуемую дату в требуемом формате
      */
     private DateTimeHelper setFormat(String format) {
-        Map<String, String> pattern = new HashMap<>();
-        pattern.put("more", "dd.MM.yyyy' 'HH:mm:ss:ms");
-        pattern.put("standard", "dd.MM.yyyy' 'HH:mm");
-        pattern.put("_standard", "dd.MM.yyyy' 'HH mm");
-        pattern.put("dateFullMonthAndTime", "dd' 'MMMM', 'HH:mm");
-        pattern.put("dateTimeUTC", "yyyy-MM-dd'T'HH:mm:ss'Z'");
-        pattern.put("dateTimeUTCplus6", "yyyy-MM-dd'T'HH:mm:ss'+06:00'");
-        pattern.put("only-date", "dd.MM.yyyy");
-        pattern.put("only-date2", "yyyy-MM-dd");
-        pattern.put("only-time", "HH:mm");
-        pattern.put("HH", "HH");
-        pattern.put("mm", "mm");
-        pattern.put("onlyYear", "yyyy");
-        formatter = DateTimeFormatter.ofPattern(pattern.get(format)).withLocale(Locale.forLanguageTag("RU"));
+        formatter = DateFormatRegistry.named(format);
         return this;
     }
 
@@ -181,9 +41,7 @@ public class DateTimeHelper extends AbstractHelper {
      */
     private DateTimeHelper plusDaysWithoutDayOff(int days) {
         dateTime = dateTime.plusDays(days);
-        while (isDayOff(dateTime)) {
-            dateTime = dateTime.plusDays(1);
-        }
+        dateTime = calendar().nextWorkingDay(dateTime.toLocalDate()).atTime(dateTime.toLocalTime());
         return this;
     }
 
@@ -195,9 +53,7 @@ public class DateTimeHelper extends AbstractHelper {
      */
     private DateTimeHelper minusDaysWithoutDayOff(int days) {
         dateTime = dateTime.minusDays(days);
-        while (isDayOff(dateTime)) {
-            dateTime = dateTime.minusDays(1);
-        }
+        dateTime = calendar().previousWorkingDay(dateTime.toLocalDate()).atTime(dateTime.toLocalTime());
         return this;
     }
 
@@ -333,11 +189,11 @@ public class DateTimeHelper extends AbstractHelper {
 
     //todo метод обхода бага
     private Boolean isLittleTime() {
-        return Integer.parseInt(now().setFormat("HH").print()) < 1;
+        return now().dateTime.getHour() < 1;
     }
 
     private Boolean isBigTime() {
-        return Integer.parseInt(now().setFormat("HH").print()) > 23;
+        return now().dateTime.getHour() > 23;
     }
 
     //TODO подумать как улучшить датахелпер и сделать это
@@ -388,10 +244,36 @@ public class DateTimeHelper extends AbstractHelper {
      * false, если не выходной
      */
     public static boolean isDayOff(LocalDateTime dateTime) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        return dateTime.getDayOfWeek().name().equals("SUNDAY")
-                || holidays.contains(dateTime.format(formatter))
-                || dateTime.getDayOfWeek().name().equals("SATURDAY");
+        return calendar().isDayOff(dateTime.toLocalDate());
+    }
+
+    /**
+     * Прибавляет к дате рабочие дни (выходные и праздники не учитываются)
+     *
+     * @param date исходная дата
+     * @param days количество рабочих дней (отрицательное значение - вычитание)
+     * @return дата, отстоящая от исходной на указанное количество рабочих дней
+     */
+    public static LocalDate plusWorkingDays(LocalDate date, int days) {
+        return calendar().plusWorkingDays(date, days);
+    }
+
+    /**
+     * Считает количество рабочих дней между датами
+     *
+     * @param from начальная дата (включительно)
+     * @param to   конечная дата (не включительно)
+     * @return количество рабочих дней
+     */
+    public static int countWorkingDays(LocalDate from, LocalDate to) {
+        return calendar().countWorkingDays(from, to);
+    }
+
+    /**
+     * Возвращает производственный календарь региона, заданного настройкой HolidayCalendarRegion (по умолчанию "ru").
+     */
+    private static BusinessCalendar calendar() {
+        return BusinessCalendar.forRegion(ConfigContainer.getInstance().getConfigProperty("HolidayCalendarRegion", "ru"));
     }
 
     /**
@@ -443,25 +325,18 @@ public class DateTimeHelper extends AbstractHelper {
     }
 
     /**
-     * Изменяет формат даты
+     * Изменяет формат даты. Как и прежний разбор SimpleDateFormat, принимает числа с другим количеством цифр
+     * и не учитывает текст после даты (например, время, отсутствующее в текущем формате).
      *
      * @param date          текстовое значение с датой
      * @param currentFormat текущий формат
      * @param newFormat     требуемый формат
      */
     public String changeDateFormat(String date, String currentFormat, String newFormat) {
-        logger.info(format("Изменяет форматы даты {%s} с {%s} на {%s}", date, currentFormat, newFormat));
-        LocalDate localDate = null;
-        try {
-            localDate = new SimpleDateFormat(
-                    currentFormat,
-                    Locale.forLanguageTag("ru")
-            ).parse(date).toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-        } catch (ParseException e) {
-            e.printStackTrace();
-        }
-        assert localDate != null;
-        return localDate.format(DateTimeFormatter.ofPattern(newFormat, locale));
+        logger.info("Изменяет форматы даты {{}} с {{}} на {{}}", date, currentFormat, newFormat);
+        LocalDate localDate = LocalDate.from(DateFormatRegistry.parserOf(currentFormat).parse(date,
+                new ParsePosition(0)));
+        return localDate.format(DateFormatRegistry.ofPattern(newFormat));
     }
 
 
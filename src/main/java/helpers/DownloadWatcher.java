@@ -0,0 +1,262 @@
+package helpers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Ожидание загрузки файла в папку загрузок сценария без опроса каталога.
+ * <p>
+ * Папка регистрируется в {@link WatchService} при запуске браузера сценария, поэтому события о файлах, загрузка
+ * которых началась до вызова {@link #await(String, Duration)}, не теряются. Chrome пишет данные во временный файл
+ * *.crdownload и по окончании переименовывает его - переименование приходит событием создания итогового файла.
+ * Временные файлы (*.crdownload, *.tmp, *.part) не рассматриваются. Файл считается загруженным, если в течение
+ * {@link #SETTLE_MS} после последнего события о нём его размер не изменился и на него можно установить блокировку
+ * (файл закрыт браузером).
+ * <p>
+ * Каждый файл возвращается один раз: файлы, которые были в папке при запуске, и уже возвращённые файлы повторно
+ * не возвращаются, поэтому несколько загрузок подряд ожидаются последовательными вызовами.
+ */
+public final class DownloadWatcher implements AutoCloseable {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    private static final Logger logger = LoggerFactory.getLogger(DownloadWatcher.class);
+
+    // Время без событий и изменения размера, после которого файл считается записанным
+    public static final long SETTLE_MS = 300;
+
+    private static final String[] PARTIAL_SUFFIXES = {".crdownload", ".tmp", ".part"};
+
+    private static final ThreadLocal<DownloadWatcher> current = new ThreadLocal<>();
+
+    private final Path directory;
+    private final WatchService watchService;
+    // Файлы, которые не возвращаются: существовавшие при запуске и уже возвращённые
+    private final Set<Path> delivered = new HashSet<>();
+    // Файлы, о которых пришли события, но которые ещё не признаны загруженными
+    private final Map<Path, Candidate> candidates = new LinkedHashMap<>();
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    /**
+     * Начинает наблюдение за папкой загрузок сценария текущего потока (создаёт папку, если её нет).
+     *
+     * @param directory папка загрузок
+     */
+    public static void start(String directory) {
+        stop();
+        try {
+            current.set(new DownloadWatcher(Paths.get(directory)));
+        } catch (IOException e) {
+            logger.warn(">>> (download) Не удалось начать наблюдение за папкой {}: {}", directory, e.toString());
+        }
+    }
+
+    /**
+     * Завершает наблюдение за папкой загрузок сценария текущего потока.
+     */
+    public static void stop() {
+        DownloadWatcher watcher = current.get();
+        if (watcher == null) return;
+        current.remove();
+        watcher.close();
+    }
+
+    /**
+     * @return наблюдатель папки загрузок сценария текущего потока или null, если браузер не запущен
+     */
+    public static DownloadWatcher current() {
+        return current.get();
+    }
+
+    /**
+     * @param directory папка загрузок
+     * @throws IOException если папку не удалось создать или зарегистрировать
+     */
+    public DownloadWatcher(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory).toAbsolutePath();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory)) {
+            for (Path file : files) delivered.add(file);
+        }
+    }
+
+    /**
+     * @return папка загрузок
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Ожидает окончания загрузки нового файла.
+     *
+     * @param glob    шаблон имени файла (например "*.zip") или null для любого файла
+     * @param timeout максимальное время ожидания
+     * @return путь к загруженному файлу или null, если за указанное время файл не загружен
+     */
+    public Path await(String glob, Duration timeout) {
+        PathMatcher matcher = glob == null ? null : FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        try {
+            while (true) {
+                Path completed = settled(matcher);
+                if (completed != null) return completed;
+                long now = System.currentTimeMillis();
+                if (now >= deadline) return null;
+                // Ждём следующего события, но не дольше, чем до момента проверки ближайшего кандидата
+                long wait = deadline - now;
+                for (Candidate candidate : candidates.values())
+                    if (matches(matcher, candidate.path)) wait = Math.min(wait, candidate.eventAt + SETTLE_MS - now);
+                WatchKey key = watchService.poll(Math.max(wait, 1), TimeUnit.MILLISECONDS);
+                if (key != null) drain(key);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ClosedWatchServiceException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Обрабатывает события ключа и все уже накопившиеся события.
+     */
+    private void drain(WatchKey key) {
+        while (key != null) {
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) rescan();
+                else changed(directory.resolve((Path) event.context()));
+            }
+            key.reset();
+            key = watchService.poll();
+        }
+    }
+
+    /**
+     * События потеряны из-за переполнения очереди - все новые файлы папки становятся кандидатами.
+     */
+    private void rescan() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) changed(file);
+        } catch (IOException e) {
+            logger.warn(">>> (download) Не удалось прочитать папку {}: {}", directory, e.toString());
+        }
+    }
+
+    private void changed(Path file) {
+        if (delivered.contains(file) || isPartial(file)) return;
+        candidates.put(file, new Candidate(file, sizeOf(file), System.currentTimeMillis()));
+    }
+
+    /**
+     * Возвращает первый подходящий файл, для которого истекло время стабилизации, размер не изменился
+     * и блокировка свободна. Остальным проверенным кандидатам время стабилизации отсчитывается заново.
+     */
+    private Path settled(PathMatcher matcher) {
+        long now = System.currentTimeMillis();
+        for (Candidate candidate : candidates.values()) {
+            if (!matches(matcher, candidate.path) || now - candidate.eventAt < SETTLE_MS) continue;
+            if (!Files.isRegularFile(candidate.path)) {
+                candidates.remove(candidate.path);
+                return settled(matcher);
+            }
+            long size = sizeOf(candidate.path);
+            if (size == candidate.size && isUnlocked(candidate.path)) {
+                candidates.remove(candidate.path);
+                delivered.add(candidate.path);
+                logger.info(">>> (download) Загружен файл {} ({} байт)", candidate.path, size);
+                return candidate.path;
+            }
+            candidate.size = size;
+            candidate.eventAt = now;
+        }
+        return null;
+    }
+
+    private static boolean matches(PathMatcher matcher, Path file) {
+        return matcher == null || matcher.matches(file.getFileName());
+    }
+
+    private static boolean isPartial(Path file) {
+        String name = file.getFileName().toString();
+        for (String suffix : PARTIAL_SUFFIXES)
+            if (name.endsWith(suffix)) return true;
+        return false;
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return true, если на файл можно установить разделяемую блокировку (файл не открыт браузером на запись)
+     */
+    private static boolean isUnlocked(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             FileLock lock = channel.tryLock(0, Long.MAX_VALUE, true)) {
+            return lock != null;
+        } catch (IOException | OverlappingFileLockException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn(">>> (download) Не удалось закрыть наблюдение за папкой {}: {}", directory, e.toString());
+        }
+    }
+
+    /**
+     * Файл, о котором пришло событие: размер и время последнего события или проверки.
+     */
+    private static final class Candidate {
+        private final Path path;
+        private long size;
+        private long eventAt;
+
+        private Candidate(Path path, long size, long eventAt) {
+            this.path = path;
+            this.size = size;
+            this.eventAt = eventAt;
+        }
+    }
+}
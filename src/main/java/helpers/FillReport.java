@@ -0,0 +1,42 @@
+package helpers;
+
+import static java.lang.String.format;
+
+/**
+ * Отчёт о заполнении или очистке поля ввода: количество обращений к WebDriver и затраченное время.
+ */
+public class FillReport {
+
+    private final String action;
+    private final int roundTrips;
+    private final long elapsedMs;
+
+    public FillReport(String action, int roundTrips, long elapsedMs) {
+        this.action = action;
+        this.roundTrips = roundTrips;
+        this.elapsedMs = elapsedMs;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    /**
+     * @return количество обращений к WebDriver
+     */
+    public int getRoundTrips() {
+        return roundTrips;
+    }
+
+    /**
+     * @return затраченное время в мс
+     */
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    @Override
+    public String toString() {
+        return format("%s: обращений к WebDriver - %d, время - %d мс", action, roundTrips, elapsedMs);
+    }
+}
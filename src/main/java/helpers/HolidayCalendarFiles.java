@@ -0,0 +1,56 @@
+package helpers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Загружает производственные календари из файлов вида [region]/[year].txt.
+ * <p>
+ * Сначала файл ищется во внешнем каталоге (если каталог задан), затем в ресурсах calendars/ на classpath.
+ * Так календарь на новый год можно подложить без пересборки проекта.
+ */
+public class HolidayCalendarFiles implements HolidayCalendarSource {
+
+    private static final String RESOURCE_ROOT = "calendars/";
+
+    private final String region;
+    private final Path directory;
+
+    /**
+     * @param region    регион календаря (имя подкаталога, например "ru")
+     * @param directory внешний каталог с календарями или null
+     */
+    public HolidayCalendarFiles(String region, String directory) {
+        this.region = region;
+        this.directory = directory == null ? null : Paths.get(directory);
+    }
+
+    @Override
+    public HolidayYear load(int year) {
+        String fileName = region + "/" + year + ".txt";
+        try {
+            if (directory != null) {
+                Path file = directory.resolve(fileName);
+                if (Files.isRegularFile(file)) {
+                    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                        return HolidayYear.parse(reader, file.toString());
+                    }
+                }
+            }
+            InputStream resource = HolidayCalendarFiles.class.getClassLoader().getResourceAsStream(RESOURCE_ROOT + fileName);
+            if (resource == null) return null;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource, StandardCharsets.UTF_8))) {
+                return HolidayYear.parse(reader, RESOURCE_ROOT + fileName);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать производственный календарь " + fileName, e);
+        }
+    }
+}
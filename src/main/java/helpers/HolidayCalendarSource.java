@@ -0,0 +1,15 @@
+package helpers;
+
+/**
+ * Источник данных производственного календаря (праздники и переносы рабочих дней).
+ */
+public interface HolidayCalendarSource {
+
+    /**
+     * Загружает праздники и переносы рабочих дней указанного года.
+     *
+     * @param year год
+     * @return данные года либо null, если данных для года нет (выходными будут считаться только суббота и воскресенье)
+     */
+    HolidayYear load(int year);
+}
@@ -0,0 +1,73 @@
+package helpers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+/**
+ * Неизменяемые данные производственного календаря за один год.
+ * <p>
+ * Текстовый формат: по одной записи в строке, строки с # - комментарии.
+ * <pre>
+ * off 2023-02-23    праздничный (нерабочий) день, приходящийся на будний день
+ * work 2024-04-27   рабочий день, приходящийся на субботу или воскресенье (перенос)
+ * </pre>
+ */
+public final class HolidayYear {
+
+    private final Set<LocalDate> daysOff;
+    private final Set<LocalDate> workingDays;
+
+    public HolidayYear(Set<LocalDate> daysOff, Set<LocalDate> workingDays) {
+        this.daysOff = Collections.unmodifiableSet(new HashSet<>(daysOff));
+        this.workingDays = Collections.unmodifiableSet(new HashSet<>(workingDays));
+    }
+
+    /**
+     * @return праздничные (нерабочие) дни
+     */
+    public Set<LocalDate> getDaysOff() {
+        return daysOff;
+    }
+
+    /**
+     * @return рабочие дни, приходящиеся на субботу или воскресенье
+     */
+    public Set<LocalDate> getWorkingDays() {
+        return workingDays;
+    }
+
+    /**
+     * Разбирает данные календаря в текстовом формате.
+     *
+     * @param reader источник текста
+     * @param name   имя источника для сообщений об ошибках
+     * @return данные календаря
+     */
+    public static HolidayYear parse(BufferedReader reader, String name) throws IOException {
+        Set<LocalDate> daysOff = new HashSet<>();
+        Set<LocalDate> workingDays = new HashSet<>();
+        String line;
+        int number = 0;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] parts = line.split("\\s+");
+            try {
+                if (parts.length == 2 && parts[0].equals("off")) daysOff.add(LocalDate.parse(parts[1]));
+                else if (parts.length == 2 && parts[0].equals("work")) workingDays.add(LocalDate.parse(parts[1]));
+                else throw new IllegalArgumentException(format("Некорректная строка %d в календаре [%s]: %s", number, name, line));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(format("Некорректная дата в строке %d календаря [%s]: %s", number, name, line), e);
+            }
+        }
+        return new HolidayYear(daysOff, workingDays);
+    }
+}
@@ -0,0 +1,241 @@
+package helpers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pages.Locator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.codeborne.selenide.Selenide.executeJavaScript;
+import static java.lang.String.format;
+
+/**
+ * Пакет DOM-операций, отправляемый в браузер одним вызовом JavaScript.
+ * <p>
+ * Операции накапливаются вызовами click, setValue, readText и т.д. и выполняются методом {@link #execute()} за одно
+ * обращение к WebDriver. Результат каждой операции возвращается отдельно: ошибка одной операции не прерывает
+ * выполнение остальных. Тип локатора определяется так же, как в {@link Locator}: xpath, если содержит "//", иначе css.
+ * Селекторы с псевдоклассами Sizzle (:contains, :eq и т.д.) в браузере без Sizzle не выполняются, поэтому
+ * отклоняются при добавлении операции.
+ * <pre>
+ * List&lt;JsCommandBatch.Result&gt; results = new JsCommandBatch()
+ *         .scrollIntoView("#submit")
+ *         .readText("#total")
+ *         .click("#submit")
+ *         .execute();
+ * </pre>
+ */
+public class JsCommandBatch {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+    public static final Logger logger = LoggerFactory.getLogger(JsCommandBatch.class);
+
+    private static final String BATCH_SCRIPT =
+            "var ops = arguments[0], results = [];" +
+            "function find(op) {" +
+            "  var l = op.locator;" +
+            "  return op.xpath" +
+            "    ? document.evaluate(l, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue" +
+            "    : document.querySelector(l);" +
+            "}" +
+            "function count(op) {" +
+            "  var l = op.locator;" +
+            "  return op.xpath" +
+            "    ? document.evaluate(l, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null).snapshotLength" +
+            "    : document.querySelectorAll(l).length;" +
+            "}" +
+            "for (var i = 0; i < ops.length; i++) {" +
+            "  var op = ops[i], value = null;" +
+            "  try {" +
+            "    var el = null;" +
+            "    if (op.locator) {" +
+            "      if (op.type === 'count') { value = count(op); }" +
+            "      else { el = find(op); if (!el) throw new Error('элемент не найден'); }" +
+            "    }" +
+            "    switch (op.type) {" +
+            "      case 'click': el.click(); break;" +
+            "      case 'setValue':" +
+            "        var proto = el instanceof HTMLTextAreaElement ? HTMLTextAreaElement.prototype" +
+            "          : el instanceof HTMLSelectElement ? HTMLSelectElement.prototype : HTMLInputElement.prototype;" +
+            "        Object.getOwnPropertyDescriptor(proto, 'value').set.call(el, op.value);" +
+            "        el.dispatchEvent(new Event('input', {bubbles: true}));" +
+            "        el.dispatchEvent(new Event('change', {bubbles: true}));" +
+            "        value = el.value;" +
+            "        break;" +
+            "      case 'text': value = el.innerText !== undefined ? el.innerText : el.textContent; break;" +
+            "      case 'attribute': value = el.getAttribute(op.name); break;" +
+            "      case 'scrollIntoView': el.scrollIntoView({block: 'center'}); break;" +
+            "      case 'disableWindowsUploader':" +
+            "        HTMLInputElement.prototype.click = function () {" +
+            "          if (this.type !== 'file') HTMLElement.prototype.click.call(this);" +
+            "        };" +
+            "        break;" +
+            "    }" +
+            "    results.push({ok: true, value: value});" +
+            "  } catch (e) {" +
+            "    results.push({ok: false, error: String(e && e.message ? e.message : e)});" +
+            "  }" +
+            "}" +
+            "return results;";
+
+    private final List<Map<String, Object>> operations = new ArrayList<>();
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    /**
+     * Нажимает на элемент.
+     */
+    public JsCommandBatch click(String locator) {
+        return add("click", locator);
+    }
+
+    /**
+     * Устанавливает значение поля ввода и генерирует события input и change.
+     * Результат операции - значение поля после установки.
+     */
+    public JsCommandBatch setValue(String locator, String value) {
+        add("setValue", locator);
+        operations.get(operations.size() - 1).put("value", value);
+        return this;
+    }
+
+    /**
+     * Читает видимый текст элемента.
+     */
+    public JsCommandBatch readText(String locator) {
+        return add("text", locator);
+    }
+
+    /**
+     * Читает значение атрибута элемента.
+     */
+    public JsCommandBatch readAttribute(String locator, String name) {
+        add("attribute", locator);
+        operations.get(operations.size() - 1).put("name", name);
+        return this;
+    }
+
+    /**
+     * Прокручивает страницу так, чтобы элемент оказался в центре окна.
+     */
+    public JsCommandBatch scrollIntoView(String locator) {
+        return add("scrollIntoView", locator);
+    }
+
+    /**
+     * Считает количество элементов, соответствующих локатору.
+     */
+    public JsCommandBatch count(String locator) {
+        return add("count", locator);
+    }
+
+    /**
+     * Отключает у всех &lt;input&gt; возможность открытия Windows-окна выбора файлов.
+     */
+    public JsCommandBatch disableWindowsUploader() {
+        return add("disableWindowsUploader", null);
+    }
+
+    /**
+     * @return количество операций в пакете
+     */
+    public int size() {
+        return operations.size();
+    }
+
+    /**
+     * Выполняет все операции пакета за одно обращение к WebDriver.
+     *
+     * @return результаты операций в порядке добавления
+     */
+    public List<Result> execute() {
+        if (operations.isEmpty()) return Collections.emptyList();
+        long start = System.currentTimeMillis();
+        List<Map<String, Object>> raw = executeJavaScript(BATCH_SCRIPT, operations);
+        List<Result> results = new ArrayList<>(raw.size());
+        for (int i = 0; i < raw.size(); i++) {
+            Map<String, Object> result = raw.get(i);
+            Map<String, Object> operation = operations.get(i);
+            results.add(new Result((String) operation.get("type"), (String) operation.get("locator"),
+                    Boolean.TRUE.equals(result.get("ok")), result.get("value"), (String) result.get("error")));
+        }
+        logger.info(">>> (js) Выполнен пакет из {} операций за {} мс", operations.size(),
+                System.currentTimeMillis() - start);
+        return results;
+    }
+
+    /**
+     * @throws IllegalArgumentException если локатор некорректен или требует Sizzle
+     */
+    private JsCommandBatch add(String type, String locator) {
+        Map<String, Object> operation = new HashMap<>();
+        operation.put("type", type);
+        if (locator != null) {
+            Locator.Strategy strategy = Locator.of(locator).getStrategy();
+            if (strategy == Locator.Strategy.SIZZLE)
+                throw new IllegalArgumentException(format("Локатор {%s} использует псевдоклассы Sizzle (:contains, " +
+                        ":eq и т.д.), которых нет в querySelector: в пакете JavaScript он не выполнится", locator));
+            operation.put("locator", locator);
+            operation.put("xpath", strategy == Locator.Strategy.XPATH);
+        }
+        operations.add(operation);
+        return this;
+    }
+
+    /**
+     * Результат одной операции пакета.
+     */
+    public static class Result {
+        private final String operation;
+        private final String locator;
+        private final boolean success;
+        private final Object value;
+        private final String error;
+
+        Result(String operation, String locator, boolean success, Object value, String error) {
+            this.operation = operation;
+            this.locator = locator;
+            this.success = success;
+            this.value = value;
+            this.error = error;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public String getLocator() {
+            return locator;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        /**
+         * @return прочитанное значение (текст, атрибут, количество) или null для операций без результата
+         */
+        public Object getValue() {
+            return value;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return success
+                    ? format("%s {%s}: %s", operation, locator, value)
+                    : format("%s {%s}: ошибка - %s", operation, locator, error);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package helpers;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.AsyncAppender;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PropertyConfigurator;
+import org.apache.log4j.spi.LoggingEvent;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Однократная настройка log4j из файла {@link #CONFIG_FILE}.
+ * <p>
+ * Повторная настройка пересоздаёт все appender'ы, поэтому выполняется один раз на JVM, а не при создании каждого
+ * объекта страницы. Appender'ы корневого логгера из файла переносятся внутрь {@link AsyncAppender} с ограниченной
+ * очередью (системное свойство log.async.buffer, по умолчанию {@link #DEFAULT_ASYNC_BUFFER}): поток теста только
+ * помещает запись в очередь, запись в консоль и файлы выполняет фоновый поток. При переполнении очереди записи
+ * не блокируют тест, а отбрасываются со сводкой о количестве пропущенных.
+ * <p>
+ * Если не задано log.scenario.buffer.enabled=false, к корневому логгеру добавляется {@link ScenarioLogBuffer}:
+ * подробный лог сценария выводится только при его падении.
+ */
+public final class LoggingInitializer {
+
+    public static final String CONFIG_FILE = "src/main/resources/log4j.properties";
+
+    public static final int DEFAULT_ASYNC_BUFFER = 8192;
+
+    private static volatile boolean initialized = false;
+    private static AsyncAppender async;
+    private static ScenarioLogBuffer scenarioBuffer;
+
+    private LoggingInitializer() {
+    }
+
+    /**
+     * Настраивает log4j, если он ещё не настроен в этой JVM.
+     */
+    public static void init() {
+        if (!initialized) initOnce();
+    }
+
+    private static synchronized void initOnce() {
+        if (initialized) return;
+        PropertyConfigurator.configure(CONFIG_FILE);
+
+        Logger root = Logger.getRootLogger();
+        List<Appender> appenders = new ArrayList<>();
+        for (Enumeration<?> e = root.getAllAppenders(); e.hasMoreElements(); ) appenders.add((Appender) e.nextElement());
+        if (!appenders.isEmpty()) {
+            async = new AsyncAppender();
+            async.setName("async");
+            async.setBufferSize(Integer.getInteger("log.async.buffer", DEFAULT_ASYNC_BUFFER));
+            async.setBlocking(false);
+            async.setLocationInfo(false);
+            for (Appender appender : appenders) {
+                root.removeAppender(appender);
+                async.addAppender(appender);
+            }
+            if (!"false".equalsIgnoreCase(System.getProperty("log.scenario.buffer.enabled"))) {
+                async.addFilter(new ScenarioLogBuffer.DeferFilter());
+                scenarioBuffer = new ScenarioLogBuffer();
+                scenarioBuffer.setName("scenario");
+                root.addAppender(scenarioBuffer);
+            }
+            async.activateOptions();
+            root.addAppender(async);
+            // Записи из очереди дописываются при завершении JVM
+            Runtime.getRuntime().addShutdownHook(new Thread(async::close, "log-async-close"));
+        }
+        initialized = true;
+    }
+
+    /**
+     * @return буфер сценариев или null, если он отключён
+     */
+    static ScenarioLogBuffer scenarioBuffer() {
+        return scenarioBuffer;
+    }
+
+    /**
+     * Передаёт сохранённую запись основным appender'ам (минуя фильтр накопления).
+     */
+    static void replay(LoggingEvent event) {
+        if (async == null) return;
+        for (Enumeration<?> e = async.getAllAppenders(); e.hasMoreElements(); )
+            ((Appender) e.nextElement()).doAppend(event);
+    }
+}
@@ -0,0 +1,281 @@
+package helpers;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * Однопроходный разбор чисел из текста страницы без регулярных выражений и промежуточных строк.
+ * <p>
+ * Число - первая последовательность цифр в тексте вместе с разделителями разрядов и десятичным разделителем,
+ * текст до и после числа (подписи, символы валют, единицы измерения) игнорируется. Поддерживается:
+ * <ul>
+ * <li>разделители разрядов: пробел, неразрывный пробел (U+00A0, U+202F), тонкий пробел, апостроф,
+ * для английской локали также запятая;</li>
+ * <li>десятичный разделитель: для российской локали запятая или точка, для английской - точка; разделитель
+ * учитывается, только если он стоит между цифрами ("123 руб." - это 123);</li>
+ * <li>знак: минус (в т.ч. U+2212) или плюс непосредственно перед числом или перед символом валюты.</li>
+ * </ul>
+ * Значения, содержащие более 18 значащих цифр, при разборе в double округляются, при разборе в BigDecimal
+ * сохраняются полностью.
+ */
+public final class NumberTextParser {
+
+    /**
+     * Локаль записи числа.
+     */
+    public enum NumberLocale {
+        RU, EN
+    }
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    // Максимальное количество значащих цифр, накапливаемых в long без переполнения
+    private static final int MAX_MANTISSA_DIGITS = 18;
+
+    // Степени десяти, точно представимые в double
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    private NumberTextParser() {
+    }
+
+    /**
+     * Разбирает число из текста.
+     *
+     * @param text   текст, содержащий число
+     * @param locale локаль записи числа
+     * @return число типа double
+     * @throws NumberFormatException если в тексте нет числа или число некорректно
+     */
+    public static double parseDouble(CharSequence text, NumberLocale locale) {
+        return toDouble(new Scan().run(text, locale), text);
+    }
+
+    /**
+     * Разбирает число из текста без потери точности.
+     *
+     * @param text   текст, содержащий число
+     * @param locale локаль записи числа
+     * @return число типа BigDecimal
+     * @throws NumberFormatException если в тексте нет числа или число некорректно
+     */
+    public static BigDecimal parseDecimal(CharSequence text, NumberLocale locale) {
+        return toDecimal(new Scan().run(text, locale), text);
+    }
+
+    /**
+     * Разбирает числа из списка текстов (например, ячеек столбца таблицы) в массив double.
+     *
+     * @param cells  тексты ячеек
+     * @param locale локаль записи чисел
+     * @return массив чисел в порядке ячеек
+     * @throws NumberFormatException если в какой-либо ячейке нет числа (с указанием номера ячейки)
+     */
+    public static double[] parseDoubles(List<? extends CharSequence> cells, NumberLocale locale) {
+        double[] result = new double[cells.size()];
+        Scan scan = new Scan();
+        for (int i = 0; i < result.length; i++) {
+            CharSequence cell = cells.get(i);
+            try {
+                result[i] = toDouble(scan.run(cell, locale), cell);
+            } catch (NumberFormatException e) {
+                throw cellError(i, e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Разбирает числа из списка текстов (например, ячеек столбца таблицы) в массив BigDecimal.
+     *
+     * @param cells  тексты ячеек
+     * @param locale локаль записи чисел
+     * @return массив чисел в порядке ячеек
+     * @throws NumberFormatException если в какой-либо ячейке нет числа (с указанием номера ячейки)
+     */
+    public static BigDecimal[] parseDecimals(List<? extends CharSequence> cells, NumberLocale locale) {
+        BigDecimal[] result = new BigDecimal[cells.size()];
+        Scan scan = new Scan();
+        for (int i = 0; i < result.length; i++) {
+            CharSequence cell = cells.get(i);
+            try {
+                result[i] = toDecimal(scan.run(cell, locale), cell);
+            } catch (NumberFormatException e) {
+                throw cellError(i, e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Собирает все цифры текста в целое число (прочие символы игнорируются).
+     *
+     * @param text текст
+     * @return целое число
+     * @throws NumberFormatException если цифр нет или число не помещается в int
+     */
+    public static int parseAllDigitsAsInt(CharSequence text) {
+        long value = 0;
+        boolean digits = false;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') continue;
+            digits = true;
+            value = value * 10 + (c - '0');
+            if (value > Integer.MAX_VALUE)
+                throw new NumberFormatException(format("Число в тексте [%s] не помещается в int", text));
+        }
+        if (!digits) throw new NumberFormatException(format("В тексте [%s] нет цифр", text));
+        return (int) value;
+    }
+
+    /**
+     * Оставляет в тексте только цифры, точки и запятые.
+     *
+     * @param text текст
+     * @return строка из цифр и разделителей
+     */
+    public static String keepDigitsAndSeparators(CharSequence text) {
+        int length = text.length();
+        char[] buffer = new char[length];
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if ((c >= '0' && c <= '9') || c == ',' || c == '.') buffer[size++] = c;
+        }
+        return new String(buffer, 0, size);
+    }
+
+    private static double toDouble(Scan scan, CharSequence text) {
+        double value;
+        if (!scan.truncated && scan.scale >= 0 && scan.scale < POWERS_OF_TEN.length && scan.mantissa < (1L << 53)) {
+            // Мантисса и степень десяти точно представимы в double - деление даёт корректно округлённый результат
+            value = scan.mantissa / POWERS_OF_TEN[scan.scale];
+        } else {
+            value = BigDecimal.valueOf(scan.mantissa, scan.scale).doubleValue();
+        }
+        if (Double.isInfinite(value))
+            throw new NumberFormatException(format("Число в тексте [%s] не помещается в double", text));
+        return scan.negative ? -value : value;
+    }
+
+    private static BigDecimal toDecimal(Scan scan, CharSequence text) {
+        BigDecimal value = scan.truncated
+                ? new BigDecimal(scan.digitsOf(text)).movePointLeft(scan.fractionDigits)
+                : BigDecimal.valueOf(scan.mantissa, scan.scale);
+        return scan.negative ? value.negate() : value;
+    }
+
+    private static NumberFormatException cellError(int index, NumberFormatException cause) {
+        NumberFormatException error = new NumberFormatException(format("Ячейка %d: %s", index, cause.getMessage()));
+        error.initCause(cause);
+        return error;
+    }
+
+    private static boolean isGroupSeparator(char c, NumberLocale locale) {
+        return c == ' ' || c == '\u00A0' || c == '\u202F' || c == '\u2009' || c == '\''
+                || (c == ',' && locale == NumberLocale.EN);
+    }
+
+    private static boolean isDecimalSeparator(char c, NumberLocale locale) {
+        return c == '.' || (c == ',' && locale == NumberLocale.RU);
+    }
+
+    /**
+     * Состояние разбора одного числа. Переиспользуется при разборе столбца.
+     */
+    private static final class Scan {
+        private long mantissa;
+        // Количество десятичных знаков мантиссы (отрицательное - мантиссу нужно умножить на 10^-scale)
+        private int scale;
+        // Количество цифр после десятичного разделителя в тексте
+        private int fractionDigits;
+        private boolean negative;
+        // В мантиссу попали не все значащие цифры
+        private boolean truncated;
+        // Границы числа в тексте
+        private int start;
+        private int end;
+
+        private Scan run(CharSequence text, NumberLocale locale) {
+            mantissa = 0;
+            scale = 0;
+            fractionDigits = 0;
+            negative = false;
+            truncated = false;
+            start = -1;
+            end = -1;
+
+            int significant = 0;
+            boolean minusPending = false;
+            boolean decimalPending = false;
+            boolean decimalSeen = false;
+            int length = text.length();
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    if (decimalPending) {
+                        if (decimalSeen)
+                            throw new NumberFormatException(format("Несколько десятичных разделителей в тексте [%s]", text));
+                        decimalSeen = true;
+                        decimalPending = false;
+                    }
+                    if (start < 0) {
+                        start = i;
+                        negative = minusPending;
+                    }
+                    end = i + 1;
+                    int digit = c - '0';
+                    if (decimalSeen) fractionDigits++;
+                    if (significant == 0 && digit == 0) {
+                        if (decimalSeen) scale++;
+                    } else if (significant < MAX_MANTISSA_DIGITS) {
+                        mantissa = mantissa * 10 + digit;
+                        significant++;
+                        if (decimalSeen) scale++;
+                    } else {
+                        truncated = true;
+                        if (!decimalSeen) scale--;
+                    }
+                } else if (start >= 0 && isDecimalSeparator(c, locale) && !decimalPending) {
+                    decimalPending = true;
+                } else if (start >= 0 && isGroupSeparator(c, locale) && !decimalPending) {
+                    // Разделитель разрядов внутри числа пропускается
+                } else if (start >= 0) {
+                    break;
+                } else {
+                    if (c == '-' || c == '\u2212') minusPending = true;
+                    else if (c == '+') minusPending = false;
+                    else if (Character.getType(c) != Character.CURRENCY_SYMBOL) minusPending = false;
+                }
+            }
+            if (start < 0) throw new NumberFormatException(format("В тексте [%s] нет числа", text));
+            return this;
+        }
+
+        /**
+         * Возвращает все цифры числа (без разделителей) - медленный путь для значений длиннее 18 цифр.
+         */
+        private char[] digitsOf(CharSequence text) {
+            char[] digits = new char[end - start];
+            int size = 0;
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c >= '0' && c <= '9') digits[size++] = c;
+            }
+            char[] result = new char[size];
+            System.arraycopy(digits, 0, result, 0, size);
+            return result;
+        }
+    }
+}
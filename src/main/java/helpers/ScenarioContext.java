@@ -0,0 +1,215 @@
+package helpers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * Параметры тестового сценария (id, name и прочее, что генерируется в ходе теста) для передачи между шагами.
+ * <p>
+ * Значения хранятся в ConcurrentHashMap, поэтому их можно читать и записывать из фоновых потоков хелперов.
+ * Параметры доступны по строковому имени или по типизированному ключу {@link Key}, который избавляет от
+ * преобразования строк в числа в шагах:
+ * <pre>
+ * static final ScenarioContext.Key&lt;Long&gt; DEAL_ID = ScenarioContext.Key.of("dealId", Long.class);
+ * context.put(DEAL_ID, 100500L);
+ * long id = context.getLong(DEAL_ID);
+ * </pre>
+ * Проверки значений выполняются простыми сравнениями и бросают AssertionError с прежними сообщениями;
+ * обращения к параметрам не логируются, для отчётов предназначен {@link #snapshot()}.
+ */
+public final class ScenarioContext {
+
+    /**
+     * Типизированный ключ параметра сценария.
+     *
+     * @param <T> тип значения
+     */
+    public static final class Key<T> {
+        private final String name;
+        private final Class<T> type;
+
+        private Key(String name, Class<T> type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        /**
+         * @param name имя параметра
+         * @param type тип значения
+         * @return ключ параметра
+         */
+        public static <T> Key<T> of(String name, Class<T> type) {
+            checkKey(name);
+            return new Key<>(name, type);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Class<T> getType() {
+            return type;
+        }
+
+        @Override
+        public String toString() {
+            return format("%s (%s)", name, type.getSimpleName());
+        }
+    }
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    public static final Logger logger = LoggerFactory.getLogger(ScenarioContext.class);
+
+    private final ConcurrentHashMap<String, Object> values = new ConcurrentHashMap<>();
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    /**
+     * Устанавливает значение параметра. Типы нового и прежнего значения проверяются до записи, перезапись другим
+     * значением логируется, как в {@link ConfigContainer#setParameter}.
+     *
+     * @return предыдущее значение или null
+     * @throws AssertionError если значение или уже установленный параметр не соответствует типу ключа
+     */
+    public <T> T put(Key<T> key, T value) {
+        if (value == null) throw new AssertionError("  [Ошибка]: Попытка установить значение параметра = null");
+        checkType(key, value);
+        while (true) {
+            Object previous = values.get(key.name);
+            if (previous != null) checkType(key, previous);
+            boolean written = previous == null
+                    ? values.putIfAbsent(key.name, value) == null
+                    : values.replace(key.name, previous, value);
+            if (!written) continue;
+            if (previous != null && !previous.equals(value)) {
+                logger.info("  [ВНИМАНИЕ]: перезапись значения параметра [{}], старое значение: [{}], " +
+                        "новое значение: [{}]", key.name, previous, value);
+            }
+            return key.type.cast(previous);
+        }
+    }
+
+    /**
+     * Возвращает значение параметра.
+     *
+     * @throws AssertionError если параметр не установлен
+     */
+    public <T> T get(Key<T> key) {
+        Object value = values.get(key.name);
+        if (value == null) throw new AssertionError("  [Ошибка]: значение полученного параметра равно NULL");
+        checkType(key, value);
+        return key.type.cast(value);
+    }
+
+    /**
+     * @return значение параметра или defaultValue, если параметр не установлен
+     * @throws AssertionError если установленный параметр не соответствует типу ключа
+     */
+    public <T> T getOrDefault(Key<T> key, T defaultValue) {
+        Object value = values.get(key.name);
+        if (value == null) return defaultValue;
+        checkType(key, value);
+        return key.type.cast(value);
+    }
+
+    /**
+     * @return числовое значение параметра
+     * @throws AssertionError если параметр не установлен
+     */
+    public long getLong(Key<? extends Number> key) {
+        return get(key).longValue();
+    }
+
+    /**
+     * @return числовое значение параметра
+     * @throws AssertionError если параметр не установлен
+     */
+    public int getInt(Key<? extends Number> key) {
+        return get(key).intValue();
+    }
+
+    /**
+     * Устанавливает строковый параметр (пустые значения запрещены).
+     *
+     * @return предыдущее значение или null
+     */
+    public Object putString(String name, String value) {
+        checkKey(name);
+        if (value == null) throw new AssertionError("  [Ошибка]: Попытка установить значение параметра = null");
+        if (value.isEmpty()) throw new AssertionError(" [Ошибка]: Попытка установить пустое значение параметра");
+        return values.put(name, value);
+    }
+
+    /**
+     * Возвращает параметр как строку (значения других типов преобразуются через String.valueOf).
+     *
+     * @throws AssertionError если параметр не установлен или пуст
+     */
+    public String getString(String name) {
+        if (name == null) throw new AssertionError("  [Ошибка]: значение переданного ключа = null !");
+        if (name.isEmpty()) throw new AssertionError("  [Ошибка]: пустое значение переданного ключа !");
+        Object value = values.get(name);
+        if (value == null) throw new AssertionError("  [Ошибка]: значение полученного параметра равно NULL");
+        String text = value instanceof String ? (String) value : String.valueOf(value);
+        if (text.isEmpty()) throw new AssertionError("  [Ошибка]: пустое значение полученного параметра");
+        return text;
+    }
+
+    /**
+     * @return true, если параметр установлен
+     */
+    public boolean contains(String name) {
+        return values.containsKey(name);
+    }
+
+    /**
+     * Удаляет параметр.
+     *
+     * @return удалённое значение или null
+     */
+    public Object remove(String name) {
+        return values.remove(name);
+    }
+
+    /**
+     * @return количество параметров
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Возвращает копию всех параметров, отсортированную по имени (для печати и отчётов об ошибке).
+     *
+     * @return неизменяемая карта имя - строковое значение
+     */
+    public Map<String, String> snapshot() {
+        Map<String, String> snapshot = new TreeMap<>();
+        for (Map.Entry<String, Object> entry : values.entrySet())
+            snapshot.put(entry.getKey(), String.valueOf(entry.getValue()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    private static void checkType(Key<?> key, Object value) {
+        if (!key.type.isInstance(value))
+            throw new AssertionError(format("  [Ошибка]: параметр [%s] имеет тип %s, ожидался %s", key.name,
+                    value.getClass().getSimpleName(), key.type.getSimpleName()));
+    }
+
+    private static void checkKey(String name) {
+        if (name == null) throw new AssertionError("  [Ошибка]: Попытка установить значение ключа равно NULL");
+        if (name.isEmpty()) throw new AssertionError("  [Ошибка]: Попытка установить пустое значение ключа");
+    }
+}
@@ -0,0 +1,147 @@
+package helpers;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.spi.Filter;
+import org.apache.log4j.spi.LoggingEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Кольцевой буфер записей лога сценария.
+ * <p>
+ * Пока в потоке идёт сценарий ({@link #start(String)} - {@link #finish(boolean)}), записи ниже WARN не выводятся
+ * в основные appender'ы, а накапливаются в буфере потока (последние {@link #DEFAULT_CAPACITY} записей).
+ * Если сценарий упал, весь буфер выводится в основные appender'ы с исходными временем и потоком записей;
+ * для успешного сценария выводится только краткая сводка. Предупреждения и ошибки выводятся сразу и в буфер
+ * не попадают (учитывается только их количество), чтобы при падении не выводиться повторно.
+ */
+public final class ScenarioLogBuffer extends AppenderSkeleton {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    public static final Logger logger = LoggerFactory.getLogger(ScenarioLogBuffer.class);
+
+    // Ёмкость буфера сценария (системное свойство log.scenario.buffer)
+    public static final int DEFAULT_CAPACITY = 5000;
+
+    private static final ThreadLocal<Ring> rings = new ThreadLocal<>();
+
+    private final int capacity = Integer.getInteger("log.scenario.buffer", DEFAULT_CAPACITY);
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    /**
+     * Начинает накопление записей лога сценария текущего потока.
+     *
+     * @param scenario название сценария
+     */
+    public static void start(String scenario) {
+        LoggingInitializer.init();
+        ScenarioLogBuffer buffer = LoggingInitializer.scenarioBuffer();
+        if (buffer != null) rings.set(new Ring(scenario, buffer.capacity));
+    }
+
+    /**
+     * Завершает накопление: при ошибке выводит все записи сценария, иначе - сводку.
+     *
+     * @param failed true, если сценарий завершился с ошибкой
+     */
+    public static void finish(boolean failed) {
+        Ring ring = rings.get();
+        if (ring == null) return;
+        rings.remove();
+        if (failed) {
+            logger.error(">>> (log) Сценарий [{}] упал: подробный лог ({} записей ниже WARN{})", ring.scenario,
+                    ring.size, ring.lost > 0 ? ", первые " + ring.lost + " не сохранились" : "");
+            for (LoggingEvent event : ring.events()) LoggingInitializer.replay(event);
+            logger.error(">>> (log) Конец подробного лога сценария [{}]", ring.scenario);
+        } else {
+            logger.info(">>> (log) Сценарий [{}] успешен: записей - {}, предупреждений и ошибок - {}", ring.scenario,
+                    ring.size + ring.lost + ring.warnings, ring.warnings);
+        }
+    }
+
+    /**
+     * @return true, если в текущем потоке идёт накопление записей
+     */
+    static boolean isBuffering() {
+        return rings.get() != null;
+    }
+
+    @Override
+    protected void append(LoggingEvent event) {
+        Ring ring = rings.get();
+        if (ring == null) return;
+        // Предупреждения и ошибки уже выведены основными appender'ами
+        if (event.getLevel().isGreaterOrEqual(Level.WARN)) {
+            ring.warnings++;
+            return;
+        }
+        // Запись будет прочитана позже, возможно из другого потока - фиксируем вычисляемые поля сейчас
+        event.getNDC();
+        event.getThreadName();
+        event.getMDCCopy();
+        event.getRenderedMessage();
+        event.getThrowableStrRep();
+        ring.add(event);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public boolean requiresLayout() {
+        return false;
+    }
+
+    /**
+     * Фильтр основных appender'ов: отклоняет записи ниже WARN, пока в потоке идёт накопление.
+     */
+    static final class DeferFilter extends Filter {
+        @Override
+        public int decide(LoggingEvent event) {
+            return isBuffering() && !event.getLevel().isGreaterOrEqual(Level.WARN) ? DENY : NEUTRAL;
+        }
+    }
+
+    /**
+     * Буфер записей одного сценария. Используется только потоком сценария.
+     */
+    private static final class Ring {
+        private final String scenario;
+        private final LoggingEvent[] events;
+        private int next;
+        private int size;
+        private long lost;
+        private long warnings;
+
+        private Ring(String scenario, int capacity) {
+            this.scenario = scenario;
+            this.events = new LoggingEvent[Math.max(capacity, 1)];
+        }
+
+        private void add(LoggingEvent event) {
+            if (size == events.length) lost++;
+            else size++;
+            events[next] = event;
+            next = (next + 1) % events.length;
+        }
+
+        private List<LoggingEvent> events() {
+            List<LoggingEvent> result = new ArrayList<>(size);
+            int first = (next - size + events.length) % events.length;
+            for (int i = 0; i < size; i++) result.add(events[(first + i) % events.length]);
+            return result;
+        }
+    }
+}
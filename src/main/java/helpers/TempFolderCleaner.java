@@ -0,0 +1,297 @@
+package helpers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Фоновое удаление временных папок сценариев.
+ * <p>
+ * Удаление выполняется общим пулом фоновых потоков (настройка TempCleanerThreads, по умолчанию 2) и не задерживает
+ * завершение сценария и запуск следующего. Подкаталоги верхнего уровня удаляются параллельно, каждый - обходом
+ * {@link Files#walkFileTree}. Файлы, которые не удалось удалить (например, ещё заблокированы браузером или
+ * антивирусом), удаляются повторно через {@link #RETRY_DELAYS_MS} без ожидания в потоках пула.
+ * <p>
+ * Метод {@link #sweepOrphans()} при первом вызове в JVM удаляет временные папки сценариев, оставшиеся от аварийно
+ * завершённых запусков. Удаляются только папки с именем, которое генерирует
+ * {@link ConfigContainer#generatePathToTempFolder()} (temp[дата]_[поток]_[счётчик]), в каталоге
+ * {@link ConfigContainer#TEMP_FOLDERS_DIRECTORY}, и папки прежних версий
+ * ({@link ConfigContainer#LEGACY_TEMP_FOLDER_NAME}). Прежние версии собирали путь как user.dir + "\\temp...":
+ * в Windows папка создавалась в рабочем каталоге, а в остальных системах обратная косая черта становилась частью
+ * имени, и папка "[рабочий каталог]\temp..." появлялась рядом с рабочим каталогом - проверяются оба места.
+ * Удаляются папки, изменённые до запуска этой JVM и не позднее, чем TempFolderOrphanAgeMinutes минут назад
+ * (по умолчанию 60), чтобы не затронуть папки параллельно работающих процессов.
+ */
+public final class TempFolderCleaner {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    private static final Logger logger = LoggerFactory.getLogger(TempFolderCleaner.class);
+
+    // Паузы перед повторными попытками удаления оставшихся файлов
+    private static final long[] RETRY_DELAYS_MS = {500, 2000, 5000, 15000};
+    // Время, в течение которого при завершении JVM дожидаемся начатых удалений
+    private static final long SHUTDOWN_WAIT_SEC = 10;
+
+    private static final AtomicBoolean swept = new AtomicBoolean(false);
+    private static final AtomicInteger pending = new AtomicInteger();
+    private static final ScheduledExecutorService executor = createExecutor();
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    private TempFolderCleaner() {
+    }
+
+    private static ScheduledExecutorService createExecutor() {
+        int threads = Math.max(1, Integer.parseInt(
+                ConfigContainer.getInstance().getConfigProperty("TempCleanerThreads", "2")));
+        AtomicInteger number = new AtomicInteger();
+        ScheduledExecutorService service = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "temp-cleaner-" + number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (pending.get() == 0) return;
+            try {
+                service.shutdown();
+                service.awaitTermination(SHUTDOWN_WAIT_SEC, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "temp-cleaner-shutdown"));
+        return service;
+    }
+
+    /**
+     * Ставит папку в очередь на удаление вместе с содержимым. Не ждёт окончания удаления.
+     *
+     * @param folder папка
+     * @return завершается, когда папка удалена или исчерпаны попытки (результат - true, если папка удалена)
+     */
+    public static CompletableFuture<Boolean> schedule(Path folder) {
+        if (folder == null) return CompletableFuture.completedFuture(true);
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        pending.incrementAndGet();
+        result.whenComplete((deleted, error) -> pending.decrementAndGet());
+        Job job = new Job(folder.toAbsolutePath(), result);
+        executor.execute(job::run);
+        return result;
+    }
+
+    /**
+     * Ставит папку в очередь на удаление вместе с содержимым.
+     *
+     * @param folder путь к папке (null игнорируется)
+     */
+    public static CompletableFuture<Boolean> schedule(String folder) {
+        return schedule(folder == null ? null : Paths.get(folder));
+    }
+
+    /**
+     * Один раз на JVM ставит в очередь на удаление временные папки сценариев, оставшиеся от прошлых запусков.
+     */
+    public static void sweepOrphans() {
+        if (!swept.compareAndSet(false, true)) return;
+        executor.execute(() -> {
+            long maxAgeMs = TimeUnit.MINUTES.toMillis(Long.parseLong(
+                    ConfigContainer.getInstance().getConfigProperty("TempFolderOrphanAgeMinutes", "60")));
+            long threshold = Math.min(ManagementFactory.getRuntimeMXBean().getStartTime(),
+                    System.currentTimeMillis() - maxAgeMs);
+            Path workingDirectory = Paths.get(System.getProperty("user.dir")).toAbsolutePath();
+            int found = sweep(workingDirectory.resolve(ConfigContainer.TEMP_FOLDERS_DIRECTORY),
+                    ConfigContainer.TEMP_FOLDER_NAME, threshold)
+                    + sweep(workingDirectory, ConfigContainer.LEGACY_TEMP_FOLDER_NAME, threshold);
+            // Папки прежних версий вне Windows: "[имя рабочего каталога]\temp..." в родительском каталоге
+            Path parent = workingDirectory.getParent();
+            if (File.separatorChar != '\\' && parent != null && workingDirectory.getFileName() != null) {
+                found += sweep(parent, Pattern.compile(Pattern.quote(workingDirectory.getFileName() + "\\")
+                        + ConfigContainer.LEGACY_TEMP_FOLDER_NAME.pattern()), threshold);
+            }
+            if (found > 0) logger.info(">>> (cleanup) Оставшихся от прошлых запусков временных папок: {}", found);
+        });
+    }
+
+    /**
+     * Ставит в очередь на удаление папки каталога, имя которых соответствует шаблону и которые не изменялись
+     * с момента threshold.
+     *
+     * @return количество найденных папок
+     */
+    static int sweep(Path directory, Pattern name, long threshold) {
+        if (!Files.isDirectory(directory)) return 0;
+        int found = 0;
+        try (DirectoryStream<Path> folders = Files.newDirectoryStream(directory, folder ->
+                name.matcher(folder.getFileName().toString()).matches()
+                        && Files.isDirectory(folder, LinkOption.NOFOLLOW_LINKS)
+                        && Files.getLastModifiedTime(folder).toMillis() < threshold)) {
+            for (Path folder : folders) {
+                schedule(folder);
+                found++;
+            }
+        } catch (IOException e) {
+            logger.warn(">>> (cleanup) Не удалось найти оставшиеся временные папки в {}: {}", directory, e.toString());
+        }
+        return found;
+    }
+
+    /**
+     * @return количество папок, удаление которых ещё не завершено
+     */
+    public static int pendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Удаление одной папки: подкаталоги верхнего уровня параллельно, затем файлы верхнего уровня и сама папка.
+     */
+    private static final class Job {
+        private final Path folder;
+        private final CompletableFuture<Boolean> result;
+        private final long start = System.currentTimeMillis();
+        private final AtomicLong deletedFiles = new AtomicLong();
+        private int attempt = 0;
+
+        private Job(Path folder, CompletableFuture<Boolean> result) {
+            this.folder = folder;
+            this.result = result;
+        }
+
+        private void run() {
+            if (!Files.exists(folder)) {
+                finish(new ArrayList<>());
+                return;
+            }
+            List<Path> subtrees = new ArrayList<>();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(folder)) {
+                for (Path child : children) if (Files.isDirectory(child)) subtrees.add(child);
+            } catch (IOException e) {
+                retryOrFail(singleton(folder), e);
+                return;
+            }
+            if (subtrees.size() < 2) {
+                finish(deleteTree(folder));
+                return;
+            }
+            List<CompletableFuture<List<Path>>> parts = new ArrayList<>();
+            for (Path subtree : subtrees) parts.add(CompletableFuture.supplyAsync(() -> deleteTree(subtree), executor));
+            CompletableFuture.allOf(parts.toArray(new CompletableFuture[0])).thenRunAsync(() -> {
+                List<Path> failed = new ArrayList<>();
+                for (CompletableFuture<List<Path>> part : parts) failed.addAll(part.join());
+                failed.addAll(deleteTree(folder));
+                finish(failed);
+            }, executor);
+        }
+
+        private void finish(List<Path> failed) {
+            if (failed.isEmpty()) {
+                logger.info(">>> (cleanup) Удалена папка {}: файлов - {}, {} мс", folder, deletedFiles.get(),
+                        System.currentTimeMillis() - start);
+                result.complete(true);
+            } else {
+                retryOrFail(failed, null);
+            }
+        }
+
+        private void retryOrFail(List<Path> failed, IOException error) {
+            if (attempt < RETRY_DELAYS_MS.length) {
+                logger.debug(">>> (cleanup) Папка {}: не удалено {}, повтор через {} мс", folder, failed.size(),
+                        RETRY_DELAYS_MS[attempt]);
+                executor.schedule(this::run, RETRY_DELAYS_MS[attempt++], TimeUnit.MILLISECONDS);
+                return;
+            }
+            logger.warn(">>> (cleanup) Папка {} не удалена: {}", folder,
+                    error != null ? error.toString() : "не удалось удалить " + failed);
+            result.complete(false);
+        }
+
+        /**
+         * Удаляет дерево обходом walkFileTree, продолжая обход при ошибках.
+         *
+         * @return пути, которые не удалось удалить
+         */
+        private List<Path> deleteTree(Path root) {
+            List<Path> failed = new ArrayList<>();
+            try {
+                Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                        if (delete(file)) deletedFiles.incrementAndGet();
+                        else failed.add(file);
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        if (!(e instanceof NoSuchFileException)) failed.add(file);
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult postVisitDirectory(Path directory, IOException e) {
+                        // Каталог с неудалёнными файлами удалится при повторной попытке
+                        if (failed.isEmpty() && !delete(directory)) failed.add(directory);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                failed.add(root);
+            }
+            return failed;
+        }
+
+        private static boolean delete(Path path) {
+            try {
+                Files.deleteIfExists(path);
+                return true;
+            } catch (FileSystemException e) {
+                // Файл только для чтения в Windows удаляется после снятия атрибута
+                File file = path.toFile();
+                if (!file.canWrite() && file.setWritable(true)) {
+                    try {
+                        Files.deleteIfExists(path);
+                        return true;
+                    } catch (IOException ignored) {
+                        return false;
+                    }
+                }
+                return false;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        private static List<Path> singleton(Path path) {
+            List<Path> list = new ArrayList<>();
+            list.add(path);
+            return list;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package helpers;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Кольцевой буфер записей трассировки без блокировок.
+ * <p>
+ * Писатель занимает номер последовательности атомарным счётчиком, заполняет новую неизменяемую запись и только
+ * после этого публикует её volatile-записью в ячейку; читатель (один поток выгрузки) забирает опубликованные
+ * записи по порядку и видит их полностью заполненными. Если читатель отстал больше чем на ёмкость буфера, старые
+ * записи перезаписываются и учитываются как потерянные - писатель никогда не ждёт.
+ */
+final class TraceRingBuffer {
+
+    /**
+     * Запись трассировки - одна команда WebDriver.
+     */
+    static final class Event {
+        // Номер последовательности записи
+        final long sequence;
+        final String name;
+        final String detail;
+        final long startMicros;
+        final long durationMicros;
+        final long threadId;
+        final String error;
+
+        private Event(long sequence, String name, String detail, long startMicros, long durationMicros,
+                      long threadId, String error) {
+            this.sequence = sequence;
+            this.name = name;
+            this.detail = detail;
+            this.startMicros = startMicros;
+            this.durationMicros = durationMicros;
+            this.threadId = threadId;
+            this.error = error;
+        }
+    }
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    private final AtomicReferenceArray<Event> slots;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+    private long readSequence;
+    private long lost;
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    /**
+     * @param capacity ёмкость буфера (округляется вверх до степени двойки)
+     */
+    TraceRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        slots = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    /**
+     * Записывает событие в буфер.
+     */
+    void add(String name, String detail, long startMicros, long durationMicros, String error) {
+        long seq = sequence.getAndIncrement();
+        Event event = new Event(seq, name, detail, startMicros, durationMicros, Thread.currentThread().getId(),
+                error);
+        // Публикация после заполнения всех полей записи. Запись не заменяет более новую: писатель, обогнавший
+        // этого на круг, уже занял ячейку, и текущая запись считается потерянной
+        int index = (int) (seq & mask);
+        Event previous = slots.get(index);
+        while ((previous == null || previous.sequence < seq) && !slots.compareAndSet(index, previous, event))
+            previous = slots.get(index);
+    }
+
+    /**
+     * Забирает следующую опубликованную запись. Вызывается только из потока выгрузки.
+     *
+     * @return запись или null, если новых записей нет
+     */
+    Event poll() {
+        while (readSequence < sequence.get()) {
+            long seq = readSequence;
+            Event event = slots.get((int) (seq & mask));
+            if (event == null || event.sequence < seq) {
+                // Писатель занял номер, но ещё не опубликовал запись; если же номер ячейки уже занят более
+                // новой записью, текущая потеряна
+                if (sequence.get() - seq <= slots.length()) return null;
+                skipLost();
+                continue;
+            }
+            if (event.sequence > seq) {
+                skipLost();
+                continue;
+            }
+            readSequence++;
+            return event;
+        }
+        return null;
+    }
+
+    /**
+     * @return количество записей, перезаписанных до выгрузки
+     */
+    long getLost() {
+        return lost;
+    }
+
+    private void skipLost() {
+        readSequence++;
+        lost++;
+    }
+}
@@ -0,0 +1,350 @@
+package helpers;
+
+import com.codeborne.selenide.SelenideElement;
+import com.codeborne.selenide.WebDriverRunner;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static com.codeborne.selenide.Selenide.executeAsyncJavaScript;
+import static com.codeborne.selenide.Selenide.executeJavaScript;
+import static com.codeborne.selenide.Selenide.sleep;
+
+/**
+ * Ожидание готовности страницы по явным условиям вместо фиксированных пауз.
+ * <p>
+ * Ожидание завершается, как только выполнены условия готовности: document.readyState = complete, нет незавершённых
+ * XHR/fetch запросов, нет выполняющихся (конечных) анимаций, элемент не меняет положение и размер. Запросы
+ * учитываются с первой проверки на странице: запросы, начатые до неё, не отслеживаются
+ * (см. {@link #REQUEST_TRACKER_SCRIPT}).
+ * <p>
+ * Условия проверяются в самом браузере: скрипт устанавливает MutationObserver и requestAnimationFrame-наблюдатель
+ * и возвращает результат одним асинхронным вызовом, как только условие выполнено. Во время ожидания команды
+ * WebDriver не отправляются, а реакция на изменение страницы не зависит от интервала опроса. Один вызов ждёт
+ * не дольше {@link #MAX_SLICE_MS}, после чего (а также после перехода на другую страницу, выгружающего
+ * наблюдатель) ожидание устанавливается заново до истечения общего времени ожидания.
+ * <p>
+ * Настройкой UseBrowserWaits=false включается прежний опрос браузера по WebDriver. Фиксированные паузы сохранены
+ * как запасной вариант и включаются настройкой UseFixedDelays=true. Максимальное время ожидания готовности
+ * страницы задаётся настройкой PageReadyTimeoutSec (по умолчанию 30).
+ */
+public class WaitHelper extends AbstractHelper {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    // Интервал между проверками условий готовности при опросе по WebDriver
+    private static final long POLLING_INTERVAL_MS = 100;
+
+    // Максимальная длительность одного асинхронного вызова (меньше таймаута бездействия Selenium Grid)
+    public static final long MAX_SLICE_MS = 60000;
+
+    // Количество ошибок вызова подряд, после которого ожидание прерывается
+    private static final int MAX_CONSECUTIVE_FAILURES = 3;
+
+    // Запас таймаута асинхронного скрипта сверх длительности вызова
+    private static final long SCRIPT_TIMEOUT_MARGIN_MS = 10000;
+
+    // Таймаут асинхронных скриптов по умолчанию (W3C WebDriver), если драйвер не сообщает текущий
+    private static final Duration DEFAULT_SCRIPT_TIMEOUT = Duration.ofSeconds(30);
+
+    // Счётчик незавершённых XHR/fetch запросов страницы (window.__pendingRequests.count) и переменная w = window.
+    // Счётчик устанавливается при первой проверке условий на странице и учитывает только запросы, начатые после
+    // этого: запросы, отправленные страницей раньше (например, при загрузке документа), не учитываются, и их
+    // завершение не ожидается. После перехода на другую страницу счётчик устанавливается заново.
+    private static final String REQUEST_TRACKER_SCRIPT =
+            "var w = window;" +
+            "if (!w.__pendingRequests) {" +
+            "  var tracker = w.__pendingRequests = {count: 0};" +
+            "  var send = XMLHttpRequest.prototype.send;" +
+            "  XMLHttpRequest.prototype.send = function () {" +
+            "    tracker.count++;" +
+            "    this.addEventListener('loadend', function () { tracker.count--; });" +
+            "    return send.apply(this, arguments);" +
+            "  };" +
+            "  if (w.fetch) {" +
+            "    var fetch = w.fetch;" +
+            "    w.fetch = function () {" +
+            "      tracker.count++;" +
+            "      var done = function () { tracker.count--; };" +
+            "      var result = fetch.apply(this, arguments);" +
+            "      result.then(done, done);" +
+            "      return result;" +
+            "    };" +
+            "  }" +
+            "}";
+
+    // Ожидание условия в браузере. Аргументы: тип условия (pageReady, visible, stable), цель (локатор или элемент),
+    // длительность вызова в мс. Результат: true - условие выполнено, false - время вызова истекло,
+    // строка - ошибка проверки условия.
+    private static final String WATCH_SCRIPT =
+            "var type = arguments[0], target = arguments[1], slice = arguments[2];" +
+            "var callback = arguments[arguments.length - 1];" +
+            REQUEST_TRACKER_SCRIPT +
+            "function find(l) {" +
+            "  return l.indexOf('//') >= 0" +
+            "    ? document.evaluate(l, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue" +
+            "    : document.querySelector(l);" +
+            "}" +
+            "function isVisible(el) {" +
+            "  if (!el || !el.isConnected) return false;" +
+            "  var style = getComputedStyle(el);" +
+            "  if (style.visibility === 'hidden' || style.display === 'none' || style.opacity === '0') return false;" +
+            "  return el.getClientRects().length > 0;" +
+            "}" +
+            "var checks = {" +
+            "  pageReady: function () {" +
+            "    if (document.readyState !== 'complete' || w.__pendingRequests.count > 0) return false;" +
+            "    return !document.getAnimations || !document.getAnimations().some(function (a) {" +
+            "      return a.playState === 'running' && !(a.effect && a.effect.getTiming().iterations === Infinity);" +
+            "    });" +
+            "  }," +
+            "  visible: function () { return isVisible(find(target)); }," +
+            "  stable: function () {" +
+            "    var r = target.getBoundingClientRect(), rect = [r.left, r.top, r.width, r.height].join(',');" +
+            "    var now = Date.now();" +
+            "    if (target.__lastRect !== rect) { target.__lastRect = rect; target.__stableSince = now; }" +
+            "    return now - target.__stableSince >= 100;" +
+            "  }" +
+            "};" +
+            "var check = checks[type], finished = false, observer = null, interval = null, timer = null;" +
+            "function finish(result) {" +
+            "  if (finished) return;" +
+            "  finished = true;" +
+            "  if (observer) observer.disconnect();" +
+            "  clearInterval(interval);" +
+            "  clearTimeout(timer);" +
+            "  document.removeEventListener('readystatechange', test);" +
+            "  callback(result);" +
+            "}" +
+            "function test() {" +
+            "  if (finished) return;" +
+            "  try { if (check()) finish(true); }" +
+            "  catch (e) { finish(String(e && e.message ? e.message : e)); }" +
+            "}" +
+            "function frame() { if (!finished) { test(); requestAnimationFrame(frame); } }" +
+            "test();" +
+            "if (!finished) {" +
+            "  observer = new MutationObserver(test);" +
+            "  observer.observe(document, {childList: true, subtree: true, attributes: true, characterData: true});" +
+            "  document.addEventListener('readystatechange', test);" +
+            "  requestAnimationFrame(frame);" +
+            // В фоновых вкладках requestAnimationFrame не вызывается, а завершение запросов не меняет DOM
+            "  interval = setInterval(test, 100);" +
+            "  timer = setTimeout(function () { finish(false); }, slice);" +
+            "}";
+
+    // Возвращает null, если страница готова, иначе - описание невыполненного условия.
+    // При первом вызове на странице устанавливает счётчик незавершённых XHR/fetch запросов.
+    private static final String PAGE_READY_SCRIPT =
+            REQUEST_TRACKER_SCRIPT +
+            "if (document.readyState !== 'complete') return 'document.readyState = ' + document.readyState;" +
+            "if (w.__pendingRequests.count > 0) return 'незавершённых запросов: ' + w.__pendingRequests.count;" +
+            "if (document.getAnimations) {" +
+            "  var running = document.getAnimations().filter(function (a) {" +
+            "    return a.playState === 'running' && !(a.effect && a.effect.getTiming().iterations === Infinity);" +
+            "  });" +
+            "  if (running.length > 0) return 'выполняющихся анимаций: ' + running.length;" +
+            "}" +
+            "return null;";
+
+    // Возвращает true, если положение и размер элемента не изменились с предыдущего вызова
+    private static final String ELEMENT_STABLE_SCRIPT =
+            "var el = arguments[0];" +
+            "var r = el.getBoundingClientRect();" +
+            "var rect = [r.left, r.top, r.width, r.height].join(',');" +
+            "var stable = el.__lastRect === rect;" +
+            "el.__lastRect = rect;" +
+            "return stable;";
+
+    private final boolean useFixedDelays;
+    private final boolean useBrowserWaits;
+    private final long timeoutMs;
+
+    // Количество асинхронных вызовов последнего ожидания в браузере
+    private int lastCalls;
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    public WaitHelper() {
+        this.useFixedDelays = Boolean.parseBoolean(config.getConfigProperty("UseFixedDelays", "false"));
+        this.useBrowserWaits = Boolean.parseBoolean(config.getConfigProperty("UseBrowserWaits", "true"));
+        this.timeoutMs = TimeUnit.SECONDS.toMillis(Long.parseLong(config.getConfigProperty("PageReadyTimeoutSec", "30")));
+    }
+
+    /**
+     * Ожидает готовности страницы: загрузка документа, сетевые запросы, анимации.
+     *
+     * @param legacyDelayMs фиксированная пауза, которая использовалась раньше (для сравнения и запасного режима)
+     * @return фактическое время ожидания в мс
+     */
+    public long waitForPageReady(long legacyDelayMs) {
+        if (useFixedDelays) return fixedDelay("готовность страницы", legacyDelayMs);
+        long start = System.currentTimeMillis();
+        if (useBrowserWaits) {
+            if (!Boolean.TRUE.equals(waitInBrowser("pageReady", null, timeoutMs)))
+                logger.warn(">>> (wait) Страница не готова за {} мс", timeoutMs);
+            return report("готовность страницы", start, legacyDelayMs);
+        }
+        String notReady = executeJavaScript(PAGE_READY_SCRIPT);
+        while (notReady != null && System.currentTimeMillis() - start < timeoutMs) {
+            sleep(POLLING_INTERVAL_MS);
+            notReady = executeJavaScript(PAGE_READY_SCRIPT);
+        }
+        if (notReady != null)
+            logger.warn(">>> (wait) Страница не готова за {} мс: {}", timeoutMs, notReady);
+        return report("готовность страницы", start, legacyDelayMs);
+    }
+
+    /**
+     * Ожидает, пока элемент перестанет менять положение и размер (например, по окончании анимации появления).
+     *
+     * @param element       элемент страницы
+     * @param legacyDelayMs фиксированная пауза, которая использовалась раньше (для сравнения и запасного режима)
+     * @return фактическое время ожидания в мс
+     */
+    public long waitForElementStable(SelenideElement element, long legacyDelayMs) {
+        if (useFixedDelays) return fixedDelay("стабильность элемента", legacyDelayMs);
+        long start = System.currentTimeMillis();
+        if (useBrowserWaits) {
+            if (!Boolean.TRUE.equals(waitInBrowser("stable", element, timeoutMs)))
+                logger.warn(">>> (wait) Элемент {} не перестал двигаться за {} мс", element, timeoutMs);
+            return report("стабильность элемента", start, legacyDelayMs);
+        }
+        executeJavaScript(ELEMENT_STABLE_SCRIPT, element);
+        boolean stable = false;
+        while (!stable && System.currentTimeMillis() - start < timeoutMs) {
+            sleep(POLLING_INTERVAL_MS);
+            stable = Boolean.TRUE.equals(executeJavaScript(ELEMENT_STABLE_SCRIPT, element));
+        }
+        if (!stable)
+            logger.warn(">>> (wait) Элемент {} не перестал двигаться за {} мс", element, timeoutMs);
+        return report("стабильность элемента", start, legacyDelayMs);
+    }
+
+    /**
+     * Ожидает в браузере, пока элемент появится на странице и станет видимым.
+     *
+     * @param locator   локатор xpath (содержит "//") или css, поддерживаемый querySelector
+     * @param timeoutMs максимальное время ожидания в мс
+     * @return true, если элемент видим; false, если время истекло; null, если ожидание в браузере отключено или
+     * условие не удалось проверить (в двух последних случаях вызывающий код проверяет видимость средствами Selenide)
+     */
+    public Boolean waitForVisible(String locator, long timeoutMs) {
+        if (!useBrowserWaits) return null;
+        long start = System.currentTimeMillis();
+        Boolean visible = waitInBrowser("visible", locator, timeoutMs);
+        logger.info(">>> (wait) Видимость {{}}: {} мс, вызовов браузера - {}", locator,
+                System.currentTimeMillis() - start, lastCalls);
+        return visible;
+    }
+
+    /**
+     * @return true, если условия проверяются в браузере (настройка UseBrowserWaits)
+     */
+    public boolean isBrowserWaitEnabled() {
+        return useBrowserWaits;
+    }
+
+    /**
+     * Ожидает условие в браузере, повторяя асинхронный вызов частями не длиннее {@link #MAX_SLICE_MS}.
+     *
+     * @return true - условие выполнено, false - время истекло, null - условие не удалось проверить
+     */
+    private Boolean waitInBrowser(String type, Object target, long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        lastCalls = 0;
+        int failures = 0;
+        WebDriver.Timeouts timeouts = WebDriverRunner.getWebDriver().manage().timeouts();
+        Duration previousTimeout = raiseScriptTimeout(timeouts, Math.min(timeoutMs, MAX_SLICE_MS));
+        try {
+            while (true) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) return false;
+                lastCalls++;
+                try {
+                    Object result = executeAsyncJavaScript(WATCH_SCRIPT, type, target,
+                            Math.min(remaining, MAX_SLICE_MS));
+                    failures = 0;
+                    if (Boolean.TRUE.equals(result)) return true;
+                    if (result instanceof String) {
+                        logger.warn(">>> (wait) Не удалось проверить условие {} в браузере: {}", type, result);
+                        return null;
+                    }
+                } catch (NoSuchSessionException | StaleElementReferenceException e) {
+                    throw e;
+                } catch (WebDriverException e) {
+                    // Переход на другую страницу выгружает наблюдатель вместе с документом - ожидание
+                    // устанавливается заново. Несколько ошибок подряд означают, что браузер недоступен.
+                    if (++failures > MAX_CONSECUTIVE_FAILURES) throw e;
+                    logger.debug(">>> (wait) Ожидание {} прервано ({}), повтор", type, e.getClass().getSimpleName());
+                }
+            }
+        } finally {
+            if (previousTimeout != null) restoreScriptTimeout(timeouts, previousTimeout);
+        }
+    }
+
+    /**
+     * Увеличивает таймаут асинхронных скриптов драйвера, если он короче вызова длительностью sliceMs.
+     *
+     * @return прежний таймаут, который нужно восстановить после ожидания, или null, если таймаут не изменялся
+     */
+    private static Duration raiseScriptTimeout(WebDriver.Timeouts timeouts, long sliceMs) {
+        Duration required = Duration.ofMillis(sliceMs + SCRIPT_TIMEOUT_MARGIN_MS);
+        Duration previous;
+        try {
+            previous = timeouts.getScriptTimeout();
+        } catch (WebDriverException e) {
+            previous = DEFAULT_SCRIPT_TIMEOUT;
+        }
+        if (previous != null && previous.compareTo(required) >= 0) return null;
+        timeouts.scriptTimeout(required);
+        return previous != null ? previous : DEFAULT_SCRIPT_TIMEOUT;
+    }
+
+    private void restoreScriptTimeout(WebDriver.Timeouts timeouts, Duration previous) {
+        try {
+            timeouts.scriptTimeout(previous);
+        } catch (NoSuchSessionException e) {
+            // Сеанс уже завершён - восстанавливать нечего
+        } catch (WebDriverException e) {
+            logger.warn(">>> (wait) Не удалось восстановить таймаут скриптов {} мс: {}", previous.toMillis(),
+                    e.toString());
+        }
+    }
+
+    /**
+     * Пауза, для которой нет условия ожидания. Выполняется только в запасном режиме фиксированных пауз.
+     *
+     * @param legacyDelayMs фиксированная пауза, которая использовалась раньше
+     * @return фактическое время ожидания в мс
+     */
+    public long pause(long legacyDelayMs) {
+        if (useFixedDelays) return fixedDelay("пауза", legacyDelayMs);
+        return 0;
+    }
+
+    private long fixedDelay(String description, long legacyDelayMs) {
+        sleep(legacyDelayMs);
+        logger.info(">>> (wait) {}: фиксированная пауза {} мс", description, legacyDelayMs);
+        return legacyDelayMs;
+    }
+
+    private long report(String description, long start, long legacyDelayMs) {
+        long waited = System.currentTimeMillis() - start;
+        if (useBrowserWaits)
+            logger.info(">>> (wait) {}: ожидание {} мс вместо фиксированных {} мс, вызовов браузера - {}", description,
+                    waited, legacyDelayMs, lastCalls);
+        else
+            logger.info(">>> (wait) {}: ожидание {} мс вместо фиксированных {} мс", description, waited, legacyDelayMs);
+        return waited;
+    }
+}
@@ -4,8 +4,8 @@ import com.codeborne.selenide.Configuration;
 import com.codeborne.selenide.SelectorMode;
 import com.codeborne.selenide.WebDriverProvider;
 import com.codeborne.selenide.WebDriverRunner;
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.openqa.selenium.Capabilities;
 import org.openqa.selenium.PageLoadStrategy;
 import org.openqa.selenium.UnexpectedAlertBehaviour;
@@ -31,7 +31,7 @@ import static com.codeborne.selenide.Selenide.open;
 
 public class WebDriverContainer {
 
-    public static final Logger logger = LogManager.getLogger(WebDriverContainer.class);
+    public static final Logger logger = LoggerFactory.getLogger(WebDriverContainer.class);
 
     /**
      * Возвращает статический экземпляр этого класса (если класс еще не имеет экземпляра, то создает новый экземпляр).
@@ -61,10 +61,36 @@ public class WebDriverContainer {
     }
 
     /**
-     * Инициализирует статический экземпляр WebDriver.
+     * Инициализирует экземпляр WebDriver текущего потока (WebDriverRunner хранит драйвер отдельно для каждого потока,
+     * поэтому параллельные сценарии работают каждый со своим браузером).
      */
     public void setWebDriver() {
-        this.setChromeDriver();
+        setWebDriver("session");
+    }
+
+    /**
+     * Инициализирует экземпляр WebDriver текущего потока.
+     *
+     * @param traceName название трассы команд WebDriver (используется, если включена настройка WebDriverTrace)
+     */
+    public void setWebDriver(String traceName) {
+        this.setChromeDriver(traceName);
+    }
+
+    /**
+     * Возвращает драйвер текущего сценария: в пул, если драйвер был взят из пула, иначе завершает сеанс.
+     *
+     * @return true, если драйвер возвращён в пул (браузер продолжает работать)
+     */
+    public boolean releaseWebDriver() {
+        try {
+            if (WebDriverPool.getInstance().release()) return true;
+            getWebDriver().quit();
+            return false;
+        } finally {
+            WebDriverTracer.stop();
+            DownloadWatcher.stop();
+        }
     }
 
     /**
@@ -73,13 +99,47 @@ public class WebDriverContainer {
      * путь к chromedriver.exe, который обеспечивает работу с chrome.exe
      * путь к плагину CryptoProExt.crx, который обеспечивает работу сертификатов
      */
-    private void setChromeDriver() {
-        Configuration.selectorMode = SelectorMode.Sizzle; //не убирать
-        Configuration.pollingInterval = 50;
+    private void setChromeDriver(String traceName) {
+        // Локаторы pages.Locator выполняются нативно, а с псевдоклассами Sizzle (:contains, :eq, ...) - через Sizzle,
+        // при любом режиме. Строковые селекторы $("...") по-прежнему выполняются через Sizzle; SelectorMode=css
+        // переводит на нативный поиск и их (только если в проекте нет строковых селекторов с псевдоклассами Sizzle).
+        Configuration.selectorMode = "css".equalsIgnoreCase(
+                ConfigContainer.getInstance().getConfigProperty("SelectorMode", "sizzle"))
+                ? SelectorMode.CSS
+                : SelectorMode.Sizzle;
+        // Частые ожидания (видимость, готовность страницы) выполняются в браузере без опроса - см. WaitHelper,
+        // для остальных проверок Selenide достаточно стандартного интервала
+        Configuration.pollingInterval = Long.parseLong(
+                ConfigContainer.getInstance().getConfigProperty("PollingIntervalMs", "200"));
+
+        String downloadDirectory = ConfigContainer.getInstance().getPathToTempFolderWithRandomName();
+        // Наблюдение начинается до запуска браузера, чтобы не пропустить события ни одной загрузки
+        DownloadWatcher.start(downloadDirectory);
+        WebDriverPool pool = WebDriverPool.getInstance();
+        ChromeDriver driver = pool.isEnabled()
+                ? pool.checkout(downloadDirectory)
+                : createChromeDriver(downloadDirectory);
+        // Пул хранит исходный драйвер, сценарию при включённой трассировке выдаётся обёртка
+        WebDriverRunner.setWebDriver(WebDriverTracer.isEnabled() ? WebDriverTracer.start(driver, traceName) : driver);
 
+        // region Проверяем браузер и его версию
+        Capabilities cap = driver.getCapabilities();
+        String browserName = cap.getBrowserName().toLowerCase();
+        String browserVersion = cap.getBrowserVersion().toLowerCase();
+        logger.info(">>> (beforeTest) Browser is: {} version: {}", browserName, browserVersion);
+        // endregion
+    }
+
+    /**
+     * Запускает новый экземпляр Chromium со всеми настройками тестовой среды.
+     *
+     * @param downloadDirectory папка для загрузки файлов
+     * @return запущенный драйвер
+     */
+    static ChromeDriver createChromeDriver(String downloadDirectory) {
         HashMap<String, Object> chromePrefs = new HashMap<>();
         chromePrefs.put("profile.default_content_settings.popups", 0);
-        chromePrefs.put("download.default_directory", ConfigContainer.getInstance().getPathToTempFolderWithRandomName());
+        chromePrefs.put("download.default_directory", downloadDirectory);
         String drivers = ConfigContainer.getInstance().getConfigPropertyWithEncode("ExternalDriverPath");
         System.setProperty("webdriver.chrome.driver", drivers + "chromedriver.exe");
         LoggingPreferences logPrefs = new LoggingPreferences();
@@ -99,14 +159,7 @@ public class WebDriverContainer {
 
         ChromeDriver driver = new ChromeDriver(options);
         driver.manage().deleteAllCookies();
-        WebDriverRunner.setWebDriver(driver);
-
-        // region Проверяем браузер и его версию
-        Capabilities cap = driver.getCapabilities();
-        String browserName = cap.getBrowserName().toLowerCase();
-        String browserVersion = cap.getBrowserVersion().toLowerCase();
-        logger.info(String.format(">>> (beforeTest) Browser is: %s version: %s", browserName, browserVersion));
-        // endregion
+        return driver;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,386 @@
+package helpers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.chrome.ChromeDriver;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+
+/**
+ * Пул заранее запущенных и настроенных сеансов браузера.
+ * <p>
+ * Вместо запуска нового Chromium на каждый сценарий сеанс берётся из пула, а по завершении сценария очищается
+ * (вкладки, cookies, local/session storage) и возвращается обратно. Папка загрузки назначается при выдаче сеанса.
+ * <p>
+ * Настройки (config.properties):
+ * <ul>
+ * <li>WebDriverPoolSize - размер пула, 0 - пул отключён (по умолчанию);</li>
+ * <li>WebDriverPoolMaxReuse - сколько сценариев может выполнить один сеанс до перезапуска (по умолчанию 20);</li>
+ * <li>WebDriverPoolHealthCheck - проверять ли сеанс перед выдачей (по умолчанию true);</li>
+ * <li>WebDriverPoolCheckoutTimeoutSec - максимальное ожидание свободного сеанса (по умолчанию 300).</li>
+ * </ul>
+ */
+public class WebDriverPool {
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+    public static final Logger logger = LoggerFactory.getLogger(WebDriverPool.class);
+
+    private static volatile WebDriverPool instance;
+
+    private final int size;
+    private final int maxReuse;
+    private final boolean healthCheck;
+    private final long checkoutTimeoutMs;
+
+    // Свободные (прогретые) сеансы
+    private final BlockingQueue<PooledSession> idle = new LinkedBlockingQueue<>();
+    // Ограничивает количество одновременно выданных сеансов размером пула
+    private final Semaphore permits;
+    // Количество живых сеансов (свободные + выданные + запускаемые)
+    private final AtomicInteger alive = new AtomicInteger();
+    // Сеанс, выданный сценарию текущего потока
+    private final ThreadLocal<PooledSession> checkedOut = new ThreadLocal<>();
+
+    // Статистика
+    private final AtomicLong checkouts = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong launched = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong resetFailures = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    private WebDriverPool(int size, int maxReuse, boolean healthCheck, long checkoutTimeoutMs) {
+        this.size = size;
+        this.maxReuse = maxReuse;
+        this.healthCheck = healthCheck;
+        this.checkoutTimeoutMs = checkoutTimeoutMs;
+        this.permits = new Semaphore(Math.max(size, 1), true);
+    }
+
+    /**
+     * Возвращает пул (создаёт его при первом обращении по настройкам из config.properties текущего потока).
+     *
+     * @return экземпляр пула
+     */
+    public static WebDriverPool getInstance() {
+        if (instance == null) {
+            synchronized (WebDriverPool.class) {
+                if (instance == null) {
+                    ConfigContainer config = ConfigContainer.getInstance();
+                    WebDriverPool pool = new WebDriverPool(
+                            Integer.parseInt(config.getConfigProperty("WebDriverPoolSize", "0")),
+                            Integer.parseInt(config.getConfigProperty("WebDriverPoolMaxReuse", "20")),
+                            Boolean.parseBoolean(config.getConfigProperty("WebDriverPoolHealthCheck", "true")),
+                            TimeUnit.SECONDS.toMillis(
+                                    Long.parseLong(config.getConfigProperty("WebDriverPoolCheckoutTimeoutSec", "300"))));
+                    if (pool.isEnabled()) pool.start();
+                    instance = pool;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @return true, если пул включён (размер больше 0)
+     */
+    public boolean isEnabled() {
+        return size > 0;
+    }
+
+    /**
+     * Выдаёт сеанс сценарию текущего потока. Ждёт освобождения сеанса, если все сеансы заняты.
+     *
+     * @param downloadDirectory папка загрузки файлов для сценария
+     * @return подготовленный драйвер
+     */
+    public ChromeDriver checkout(String downloadDirectory) {
+        long start = System.nanoTime();
+        PooledSession session = null;
+        try {
+            if (!permits.tryAcquire(checkoutTimeoutMs, TimeUnit.MILLISECONDS))
+                throw new IllegalStateException(format("Нет свободного сеанса браузера в течение %d мс", checkoutTimeoutMs));
+            try {
+                while (session == null) {
+                    session = idle.poll();
+                    if (session == null) {
+                        // Свободных нет: запускаем новый, либо ждём сеанс, который прогревается в фоне
+                        session = reserveSlot() ? launch() : idle.poll(checkoutTimeoutMs, TimeUnit.MILLISECONDS);
+                        if (session == null)
+                            throw new IllegalStateException("Не удалось получить сеанс браузера из пула");
+                    }
+                    if (healthCheck && !isHealthy(session)) {
+                        evict(session, "сеанс не прошёл проверку работоспособности");
+                        session = null;
+                    }
+                }
+                setDownloadDirectory(session.driver, downloadDirectory);
+            } catch (RuntimeException e) {
+                if (session != null) evict(session, "ошибка подготовки сеанса");
+                permits.release();
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание сеанса браузера прервано", e);
+        }
+
+        if (session.uses++ > 0) reused.incrementAndGet();
+        checkedOut.set(session);
+
+        long waitNanos = System.nanoTime() - start;
+        checkouts.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        logger.info(">>> (pool) Выдан сеанс браузера (использование №{}), ожидание {} мс",
+                session.uses, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        return session.driver;
+    }
+
+    /**
+     * Возвращает в пул сеанс, выданный сценарию текущего потока. Сеанс очищается; если сеанс исчерпал лимит
+     * повторных использований или не поддаётся очистке, он завершается.
+     *
+     * @return true, если текущему потоку был выдан сеанс из пула
+     */
+    public boolean release() {
+        PooledSession session = checkedOut.get();
+        if (session == null) return false;
+        checkedOut.remove();
+        try {
+            if (session.uses >= maxReuse) {
+                evict(session, "исчерпан лимит повторных использований");
+            } else {
+                reset(session.driver);
+                idle.offer(session);
+            }
+        } catch (WebDriverException e) {
+            // Сеанс, который не удаётся очистить, не используется повторно: постоянная ошибка лишает пул смысла
+            resetFailures.incrementAndGet();
+            logger.warn(">>> (pool) Не удалось очистить сеанс браузера: {}", e.toString());
+            evict(session, "ошибка очистки сеанса");
+        } finally {
+            permits.release();
+        }
+        return true;
+    }
+
+    /**
+     * Печатает статистику работы пула: количество выдач, долю повторного использования и время ожидания.
+     * Если сеансы не используются повторно из-за ошибок очистки, выводится предупреждение.
+     */
+    public void printStatistics() {
+        long total = checkouts.get();
+        logger.info(">>> (pool) Выдано сеансов: {}, повторно использовано: {} ({}%), запущено: {}, " +
+                        "удалено: {}, ошибок очистки: {}, среднее ожидание: {} мс, максимальное ожидание: {} мс",
+                total, reused.get(), total == 0 ? 0.0 : Math.round(reused.get() * 1000.0 / total) / 10.0,
+                launched.get(), evicted.get(), resetFailures.get(),
+                total == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / total),
+                TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+        if (reused.get() == 0 && resetFailures.get() > 0) {
+            logger.warn(">>> (pool) Ни один сеанс не использован повторно: очистка сеансов завершилась ошибкой {} раз",
+                    resetFailures.get());
+        }
+    }
+
+    /**
+     * Запускает фоновый прогрев пула и регистрирует завершение всех сеансов при остановке JVM.
+     */
+    private void start() {
+        Thread warmUp = new Thread(() -> {
+            ConfigContainer.getInstance().loadConfig();
+            while (reserveSlot()) {
+                try {
+                    idle.offer(launch());
+                } catch (RuntimeException e) {
+                    logger.error(">>> (pool) Не удалось прогреть сеанс браузера: {}", e.getMessage());
+                    return;
+                }
+            }
+        }, "webdriver-pool-warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            printStatistics();
+            PooledSession session;
+            while ((session = idle.poll()) != null) {
+                try {
+                    session.driver.quit();
+                } catch (WebDriverException ignored) {
+                    // Браузер уже завершён
+                }
+            }
+        }, "webdriver-pool-shutdown"));
+    }
+
+    /**
+     * Резервирует место под новый сеанс, если количество живых сеансов меньше размера пула.
+     */
+    private boolean reserveSlot() {
+        int current;
+        do {
+            current = alive.get();
+            if (current >= size) return false;
+        } while (!alive.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Запускает новый сеанс под зарезервированное место.
+     */
+    private PooledSession launch() {
+        try {
+            String directory = ConfigContainer.getInstance().getPathToTempFolderWithRandomName();
+            PooledSession session = new PooledSession(WebDriverContainer.createChromeDriver(
+                    directory != null ? directory : System.getProperty("user.dir")));
+            launched.incrementAndGet();
+            return session;
+        } catch (RuntimeException e) {
+            alive.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void evict(PooledSession session, String reason) {
+        logger.info(">>> (pool) Сеанс браузера удалён из пула: {}", reason);
+        evicted.incrementAndGet();
+        alive.decrementAndGet();
+        try {
+            session.driver.quit();
+        } catch (WebDriverException ignored) {
+            // Браузер уже недоступен
+        }
+    }
+
+    private boolean isHealthy(PooledSession session) {
+        try {
+            return session.driver.getSessionId() != null && !session.driver.getWindowHandles().isEmpty();
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Очищает сеанс после сценария. Из истории переходов и фреймов каждой вкладки собираются источники
+     * (схема, хост и порт), которые открывал сценарий; затем открывается новая пустая вкладка, а вкладки сценария
+     * закрываются вместе с их sessionStorage. Данные каждого собранного источника (localStorage, IndexedDB,
+     * Cache Storage, service worker'ы и др.) удаляются командой CDP Storage.clearDataForOrigin - она принимает
+     * только конкретный источник, - cookies всех источников удаляются командой Network.clearBrowserCookies.
+     */
+    private void reset(ChromeDriver driver) {
+        Set<String> origins = new LinkedHashSet<>();
+        List<String> handles = new ArrayList<>(driver.getWindowHandles());
+        for (String handle : handles) {
+            driver.switchTo().window(handle);
+            collectOrigins(driver, origins);
+        }
+        String blank = driver.switchTo().newWindow(WindowType.TAB).getWindowHandle();
+        for (String handle : handles) {
+            driver.switchTo().window(handle);
+            driver.close();
+        }
+        driver.switchTo().window(blank);
+        for (String origin : origins) {
+            Map<String, Object> storage = new HashMap<>();
+            storage.put("origin", origin);
+            storage.put("storageTypes", "all");
+            driver.executeCdpCommand("Storage.clearDataForOrigin", storage);
+        }
+        driver.executeCdpCommand("Network.clearBrowserCookies", new HashMap<>());
+    }
+
+    /**
+     * Добавляет источники страниц из истории переходов текущей вкладки и её текущих фреймов.
+     */
+    @SuppressWarnings("unchecked")
+    private static void collectOrigins(ChromeDriver driver, Set<String> origins) {
+        Map<String, Object> history = driver.executeCdpCommand("Page.getNavigationHistory", new HashMap<>());
+        Object entries = history.get("entries");
+        if (entries instanceof List) {
+            for (Object entry : (List<Object>) entries)
+                if (entry instanceof Map) addOrigin(origins, ((Map<String, Object>) entry).get("url"));
+        }
+        Map<String, Object> frames = driver.executeCdpCommand("Page.getFrameTree", new HashMap<>());
+        collectFrameOrigins(frames.get("frameTree"), origins);
+    }
+
+    /**
+     * Добавляет источники фрейма и всех вложенных фреймов (узел дерева Page.getFrameTree).
+     */
+    @SuppressWarnings("unchecked")
+    static void collectFrameOrigins(Object node, Set<String> origins) {
+        if (!(node instanceof Map)) return;
+        Map<String, Object> tree = (Map<String, Object>) node;
+        if (tree.get("frame") instanceof Map) addOrigin(origins, ((Map<String, Object>) tree.get("frame")).get("url"));
+        if (tree.get("childFrames") instanceof List) {
+            for (Object child : (List<Object>) tree.get("childFrames")) collectFrameOrigins(child, origins);
+        }
+    }
+
+    private static void addOrigin(Set<String> origins, Object url) {
+        String origin = url instanceof String ? originOf((String) url) : null;
+        if (origin != null) origins.add(origin);
+    }
+
+    /**
+     * @param url адрес страницы
+     * @return источник адреса http(s) ("https://host:port") или null для прочих адресов (about:, data: и т.п.)
+     */
+    static String originOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            String scheme = uri.getScheme();
+            if (uri.getHost() == null || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme)))
+                return null;
+            return scheme.toLowerCase() + "://" + uri.getHost().toLowerCase()
+                    + (uri.getPort() == -1 ? "" : ":" + uri.getPort());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Назначает папку загрузки файлов уже запущенному браузеру.
+     */
+    private void setDownloadDirectory(ChromeDriver driver, String downloadDirectory) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("behavior", "allow");
+        parameters.put("downloadPath", downloadDirectory);
+        driver.executeCdpCommand("Browser.setDownloadBehavior", parameters);
+    }
+
+    /**
+     * Сеанс браузера в пуле.
+     */
+    private static class PooledSession {
+        private final ChromeDriver driver;
+        private int uses;
+
+        private PooledSession(ChromeDriver driver) {
+            this.driver = driver;
+        }
+    }
+}
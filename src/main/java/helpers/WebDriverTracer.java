@@ -0,0 +1,274 @@
+package helpers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Трассировка команд WebDriver сценария: имя команды, локатор или адрес, длительность и результат.
+ * <p>
+ * Драйвер оборачивается в {@link EventFiringDecorator}; слушатель только записывает событие в кольцевой буфер
+ * без блокировок, а запись в файл выполняет общий фоновый поток. Трасса сохраняется в
+ * target/webdriver-traces/[сценарий]_[хеш].json в формате Chrome trace-event (открывается в chrome://tracing
+ * или Perfetto). Включается настройкой WebDriverTrace=true.
+ * <p>
+ * По окончании сценария сообщается доля времени внутри слушателя (beforeAnyCall и afterAnyCall/onError) от времени
+ * выполнения команд. Затраты самого {@link EventFiringDecorator} (прокси и вызов методов через reflection)
+ * в эту долю не входят.
+ */
+public final class WebDriverTracer implements WebDriverListener {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    public static final Logger logger = LoggerFactory.getLogger(WebDriverTracer.class);
+
+    public static final String OUTPUT_DIRECTORY = "target/webdriver-traces";
+
+    // Ёмкость буфера одного сценария (записи, не выгруженные до переполнения, теряются)
+    private static final int BUFFER_CAPACITY = 8192;
+    // Интервал фоновой выгрузки буферов в файлы
+    private static final long FLUSH_INTERVAL_MS = 200;
+    // Допустимая доля затрат слушателя
+    private static final double OVERHEAD_WARN_PERCENT = 3.0;
+    // Длина, до которой сокращаются адреса и локаторы
+    private static final int MAX_DETAIL_LENGTH = 200;
+    // Длина, до которой сокращается название в имени файла трассы
+    private static final int MAX_FILE_NAME_LENGTH = 100;
+
+    private static final Json json = new Json();
+    private static final ThreadLocal<WebDriverTracer> current = new ThreadLocal<>();
+    private static final CopyOnWriteArrayList<WebDriverTracer> active = new CopyOnWriteArrayList<>();
+    // Количество трасс по именам файлов в этой JVM
+    private static final ConcurrentHashMap<String, Integer> fileNames = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "webdriver-trace-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        flusher.scheduleWithFixedDelay(WebDriverTracer::flushAll, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private final String name;
+    private final File file;
+    private final TraceRingBuffer buffer = new TraceRingBuffer(BUFFER_CAPACITY);
+    // Время начала трассы: отметки событий отсчитываются от него
+    private final long originNanos = System.nanoTime();
+    private final long originMicros = System.currentTimeMillis() * 1000;
+
+    // Начало текущих команд (вызовы слушателя в потоке сценария могут быть вложенными)
+    private long[] callStarts = new long[8];
+    private int depth;
+    private long commandNanos;
+    // Время внутри слушателя
+    private long listenerNanos;
+    private long commands;
+
+    // Доступ только из потока выгрузки (или под блокировкой this при закрытии)
+    private Writer writer;
+    private long written;
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    private WebDriverTracer(String name) {
+        this.name = name;
+        this.file = new File(OUTPUT_DIRECTORY, safeFileName(name) + ".json");
+    }
+
+    /**
+     * @return true, если трассировка включена настройкой WebDriverTrace
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(ConfigContainer.getInstance().getConfigProperty("WebDriverTrace", "false"));
+    }
+
+    /**
+     * Начинает трассировку сценария текущего потока и оборачивает драйвер.
+     *
+     * @param driver исходный драйвер (остаётся без изменений, например, в пуле браузеров)
+     * @param name   название трассы (сценария)
+     * @return драйвер, команды которого трассируются
+     */
+    public static WebDriver start(WebDriver driver, String name) {
+        stop();
+        WebDriverTracer tracer = new WebDriverTracer(name);
+        current.set(tracer);
+        active.add(tracer);
+        return new EventFiringDecorator(tracer).decorate(driver);
+    }
+
+    /**
+     * Завершает трассировку сценария текущего потока: выгружает оставшиеся записи и закрывает файл.
+     */
+    public static void stop() {
+        WebDriverTracer tracer = current.get();
+        if (tracer == null) return;
+        current.remove();
+        active.remove(tracer);
+        tracer.close();
+    }
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        long now = System.nanoTime();
+        if (depth == callStarts.length) callStarts = Arrays.copyOf(callStarts, depth * 2);
+        callStarts[depth++] = now;
+        listenerNanos += System.nanoTime() - now;
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        record(target, method, args, null);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        record(target, method, args, cause.getClass().getSimpleName());
+    }
+
+    private void record(Object target, Method method, Object[] args, String error) {
+        long end = System.nanoTime();
+        if (depth == 0) return;
+        long start = callStarts[--depth];
+        long duration = end - start;
+        commands++;
+        if (depth == 0) commandNanos += duration;
+        buffer.add(commandName(target, method), detailOf(args),
+                originMicros + (start - originNanos) / 1000, duration / 1000, error);
+        listenerNanos += System.nanoTime() - end;
+    }
+
+    private static String commandName(Object target, Method method) {
+        Class<?> type = method.getDeclaringClass();
+        return type.getSimpleName() + "." + method.getName();
+    }
+
+    private static String detailOf(Object[] args) {
+        if (args == null || args.length == 0) return null;
+        // Значения, вводимые sendKeys, не записываются - в них могут быть пароли
+        Object first = args[0];
+        if (first instanceof By || first instanceof String) {
+            String detail = first.toString();
+            return detail.length() > MAX_DETAIL_LENGTH ? detail.substring(0, MAX_DETAIL_LENGTH) + "..." : detail;
+        }
+        return null;
+    }
+
+    private static void flushAll() {
+        for (WebDriverTracer tracer : active) {
+            try {
+                tracer.flush();
+            } catch (RuntimeException e) {
+                logger.warn(">>> (trace) Ошибка выгрузки трассы [{}]: {}", tracer.name, e.toString());
+            }
+        }
+    }
+
+    private synchronized void flush() {
+        TraceRingBuffer.Event event = buffer.poll();
+        if (event == null) return;
+        try {
+            if (writer == null) {
+                file.getParentFile().mkdirs();
+                writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+                writer.write("[\n");
+            }
+            do {
+                writeEvent(event);
+            } while ((event = buffer.poll()) != null);
+            writer.flush();
+        } catch (IOException e) {
+            logger.warn(">>> (trace) Не удалось записать трассу в {}: {}", file, e.toString());
+        }
+    }
+
+    private void writeEvent(TraceRingBuffer.Event event) throws IOException {
+        Map<String, Object> args = new LinkedHashMap<>();
+        if (event.detail != null) args.put("target", event.detail);
+        args.put("outcome", event.error == null ? "ok" : event.error);
+        Map<String, Object> trace = new LinkedHashMap<>();
+        trace.put("name", event.name);
+        trace.put("cat", event.error == null ? "webdriver" : "webdriver,error");
+        trace.put("ph", "X");
+        trace.put("ts", event.startMicros);
+        trace.put("dur", event.durationMicros);
+        trace.put("pid", 1);
+        trace.put("tid", event.threadId);
+        trace.put("args", args);
+        if (written++ > 0) writer.write(",\n");
+        writer.write(json.toJson(trace).replace('\n', ' '));
+    }
+
+    private synchronized void close() {
+        flush();
+        double listenerPercent = commandNanos == 0 ? 0.0 : listenerNanos * 100.0 / commandNanos;
+        try {
+            if (writer != null) {
+                Map<String, Object> args = new LinkedHashMap<>();
+                args.put("commands", commands);
+                args.put("lostEvents", buffer.getLost());
+                args.put("listenerOverheadPercent", Math.round(listenerPercent * 100) / 100.0);
+                Map<String, Object> metadata = new LinkedHashMap<>();
+                metadata.put("name", "trace_summary");
+                metadata.put("ph", "M");
+                metadata.put("pid", 1);
+                metadata.put("args", args);
+                writer.write(",\n" + json.toJson(metadata).replace('\n', ' ') + "\n]\n");
+                writer.close();
+            }
+        } catch (IOException e) {
+            logger.warn(">>> (trace) Не удалось закрыть трассу {}: {}", file, e.toString());
+        }
+        String message = ">>> (trace) Трасса [{}]: команд - {}, потеряно - {}, затраты слушателя - {}% " +
+                "({} мкс), файл {}";
+        Object[] arguments = {name, commands, buffer.getLost(), Math.round(listenerPercent * 100) / 100.0,
+                listenerNanos / 1000, file};
+        if (listenerPercent > OVERHEAD_WARN_PERCENT) logger.warn(message, arguments);
+        else logger.info(message, arguments);
+    }
+
+    /**
+     * Имя файла трассы: название, сокращённое до {@link #MAX_FILE_NAME_LENGTH} символов, и хеш полного названия,
+     * чтобы сценарии с общим началом названия не перезаписывали трассы друг друга. Повторная трасса с тем же
+     * названием в этой JVM получает номер.
+     */
+    private static String safeFileName(String name) {
+        StringBuilder result = new StringBuilder(MAX_FILE_NAME_LENGTH + 16);
+        for (int i = 0; i < name.length() && result.length() < MAX_FILE_NAME_LENGTH; i++) {
+            char c = name.charAt(i);
+            result.append(Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '.' ? c : '_');
+        }
+        if (result.length() == 0) result.append("trace");
+        result.append('_').append(String.format("%08x", name.hashCode()));
+        int run = fileNames.merge(result.toString(), 1, Integer::sum);
+        if (run > 1) result.append('_').append(run);
+        return result.toString();
+    }
+}
@@ -0,0 +1,221 @@
+package helpers;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Потоковое извлечение значений из XML без построения DOM.
+ * <p>
+ * За один проход StAX-парсером извлекаются значения нескольких элементов; разбор прекращается, как только найдены
+ * все запрошенные элементы. Элемент задаётся:
+ * <ul>
+ * <li>именем без префикса ("total") - совпадает с элементом с таким локальным именем при любом префиксе;</li>
+ * <li>полным именем ("ns:total") - совпадает только с элементом с таким префиксом и локальным именем;</li>
+ * <li>путём ("items/item/id") - совпадает с элементом, путь к которому оканчивается указанными именами;
+ * путь, начинающийся с "/", отсчитывается от корня документа.</li>
+ * </ul>
+ * Значение элемента - текст до первого дочернего элемента (как первый текстовый узел в DOM; соседние текст
+ * и CDATA объединяются, комментарии пропускаются); если текста нет, возвращается {@link #NO_TEXT}. Фабрика
+ * парсеров общая для всех потоков, DTD и внешние сущности отключены.
+ */
+public final class XmlValueExtractor {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    // Значение элемента без текста (совместимо с AbstractHelper.getCharacterDataFromElement)
+    public static final String NO_TEXT = "?";
+
+    private static final XMLInputFactory factory = createFactory();
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    private XmlValueExtractor() {
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    }
+
+    /**
+     * @return общая фабрика StAX-парсеров (только для создания парсеров, не для изменения настроек)
+     */
+    public static XMLInputFactory factory() {
+        return factory;
+    }
+
+    /**
+     * Возвращает значение первого элемента.
+     *
+     * @param xml     текст XML
+     * @param element имя или путь элемента
+     * @return значение элемента
+     * @throws IllegalArgumentException если элемента нет или XML некорректен
+     */
+    public static String value(String xml, String element) {
+        String value = values(xml, element).get(element);
+        if (value == null) throw new IllegalArgumentException(format("В XML нет элемента <%s>", element));
+        return value;
+    }
+
+    /**
+     * Возвращает значения первых элементов за один проход.
+     *
+     * @param xml      текст XML
+     * @param elements имена или пути элементов
+     * @return значения в порядке запроса; ненайденные элементы в результат не попадают
+     * @throws IllegalArgumentException если XML некорректен
+     */
+    public static Map<String, String> values(String xml, String... elements) {
+        try {
+            return extract(factory.createXMLStreamReader(new StringReader(xml)), elements);
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException(format("Некорректный XML: %s", e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Возвращает значения первых элементов за один проход, читая XML из потока (кодировка из объявления XML).
+     * Поток не закрывается.
+     *
+     * @param xml      поток XML
+     * @param elements имена или пути элементов
+     * @return значения в порядке запроса; ненайденные элементы в результат не попадают
+     * @throws IllegalArgumentException если XML некорректен
+     */
+    public static Map<String, String> values(InputStream xml, String... elements) {
+        try {
+            return extract(factory.createXMLStreamReader(xml), elements);
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException(format("Некорректный XML: %s", e.getMessage()), e);
+        }
+    }
+
+    private static Map<String, String> extract(XMLStreamReader reader, String[] elements) throws XMLStreamException {
+        List<Spec> pending = new ArrayList<>(elements.length);
+        boolean paths = false;
+        for (String element : elements) {
+            Spec spec = new Spec(element);
+            pending.add(spec);
+            paths |= spec.steps.length > 1 || spec.absolute;
+        }
+        Map<String, String> found = new LinkedHashMap<>();
+        // Путь к текущему элементу ведётся, только если запрошены пути
+        List<String> localNames = paths ? new ArrayList<>() : null;
+        List<String> qualifiedNames = paths ? new ArrayList<>() : null;
+        // После чтения текста парсер уже стоит на следующем событии - его не нужно пропускать
+        boolean advance = true;
+        try {
+            while (!pending.isEmpty() && (!advance || reader.hasNext())) {
+                int event = advance ? reader.next() : reader.getEventType();
+                advance = true;
+                if (event == XMLStreamConstants.END_ELEMENT && paths) {
+                    localNames.remove(localNames.size() - 1);
+                    qualifiedNames.remove(qualifiedNames.size() - 1);
+                }
+                if (event != XMLStreamConstants.START_ELEMENT) continue;
+                String local = reader.getLocalName();
+                String prefix = reader.getPrefix();
+                String qualified = prefix == null || prefix.isEmpty() ? local : prefix + ':' + local;
+                if (paths) {
+                    localNames.add(local);
+                    qualifiedNames.add(qualified);
+                }
+                List<Spec> matched = null;
+                for (Spec spec : pending) {
+                    boolean match = paths
+                            ? spec.matches(localNames, qualifiedNames)
+                            : spec.matchesName(local, qualified);
+                    if (match) {
+                        if (matched == null) matched = new ArrayList<>(1);
+                        matched.add(spec);
+                    }
+                }
+                if (matched == null) continue;
+                // Текст читается до первого дочернего элемента или конца элемента
+                String text = leadingText(reader);
+                for (Spec spec : matched) found.put(spec.source, text);
+                pending.removeAll(matched);
+                advance = false;
+            }
+        } finally {
+            reader.close();
+        }
+        // Порядок результата - порядок запроса
+        Map<String, String> ordered = new LinkedHashMap<>();
+        for (String element : elements) if (found.containsKey(element)) ordered.put(element, found.get(element));
+        return ordered;
+    }
+
+    /**
+     * Читает текст элемента до первого дочернего элемента или конца элемента (на этом событии парсер и остаётся).
+     */
+    private static String leadingText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = null;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE) {
+                if (text == null) text = new StringBuilder();
+                text.append(reader.getText());
+            } else if (event == XMLStreamConstants.START_ELEMENT || event == XMLStreamConstants.END_ELEMENT) {
+                break;
+            }
+        }
+        return text == null ? NO_TEXT : text.toString();
+    }
+
+    /**
+     * Разобранное имя или путь элемента.
+     */
+    private static final class Spec {
+        private final String source;
+        private final boolean absolute;
+        private final String[] steps;
+
+        private Spec(String source) {
+            this.source = source;
+            this.absolute = source.startsWith("/");
+            // Пустой шаг (в том числе в конце пути) - ошибка, поэтому пустые строки не отбрасываются
+            this.steps = (absolute ? source.substring(1) : source).split("/", -1);
+            if (Arrays.asList(steps).contains(""))
+                throw new IllegalArgumentException(format("Некорректный путь элемента: %s", source));
+        }
+
+        private boolean matchesName(String local, String qualified) {
+            return stepMatches(steps[0], local, qualified);
+        }
+
+        private boolean matches(List<String> localNames, List<String> qualifiedNames) {
+            int depth = localNames.size();
+            if (depth < steps.length || (absolute && depth != steps.length)) return false;
+            for (int i = 1; i <= steps.length; i++) {
+                if (!stepMatches(steps[steps.length - i], localNames.get(depth - i), qualifiedNames.get(depth - i)))
+                    return false;
+            }
+            return true;
+        }
+
+        private static boolean stepMatches(String step, String local, String qualified) {
+            return step.indexOf(':') >= 0 ? step.equals(qualified) : step.equals(local);
+        }
+    }
+}
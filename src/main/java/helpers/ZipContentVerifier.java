@@ -0,0 +1,354 @@
+package helpers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static java.lang.String.format;
+
+/**
+ * Проверка содержимого zip-архива без распаковки на диск.
+ * <p>
+ * Архив открывается через {@link ZipFile}: оглавление читается с конца файла, каждая запись распаковывается потоком
+ * буфером {@link #BUFFER_SIZE} байт и не сохраняется ни на диск, ни в память целиком. Все проверки одной записи
+ * (размер, CRC32, поиск текста, значения XML) выполняются за одно чтение записи. Текст ищется по байтам в кодировке
+ * записи, значения XML читаются StAX-парсером.
+ * <pre>
+ * ZipContentVerifier.of(archive)
+ *         .hasEntry("report.xml")
+ *         .hasEntryMatching("docs/*.pdf")
+ *         .containsText("readme.txt", "Итого")
+ *         .xmlValue("report.xml", "Amount", "100.00")
+ *         .verifyCrc()
+ *         .verify();
+ * </pre>
+ * Метод {@link #verify()} выполняет все проверки и сообщает обо всех несоответствиях сразу.
+ */
+public final class ZipContentVerifier {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    private static final Logger logger = LoggerFactory.getLogger(ZipContentVerifier.class);
+
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path archive;
+    private final List<String> requiredEntries = new ArrayList<>();
+    private final List<String> requiredPatterns = new ArrayList<>();
+    private final Map<String, EntryChecks> checks = new LinkedHashMap<>();
+    private boolean crcOfAllEntries = false;
+    private Integer expectedCount;
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    private ZipContentVerifier(Path archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * @param archive путь к zip-архиву
+     * @return проверка содержимого архива
+     */
+    public static ZipContentVerifier of(Path archive) {
+        return new ZipContentVerifier(archive);
+    }
+
+    /**
+     * @param archive путь к zip-архиву
+     * @return проверка содержимого архива
+     */
+    public static ZipContentVerifier of(String archive) {
+        return new ZipContentVerifier(Paths.get(archive));
+    }
+
+    /**
+     * Архив должен содержать запись с указанным именем.
+     */
+    public ZipContentVerifier hasEntry(String name) {
+        requiredEntries.add(name);
+        return this;
+    }
+
+    /**
+     * Архив должен содержать хотя бы одну запись, имя которой соответствует шаблону (например "docs/*.pdf").
+     */
+    public ZipContentVerifier hasEntryMatching(String glob) {
+        requiredPatterns.add(glob);
+        return this;
+    }
+
+    /**
+     * Архив должен содержать указанное количество файлов (без учёта каталогов).
+     */
+    public ZipContentVerifier entryCount(int count) {
+        this.expectedCount = count;
+        return this;
+    }
+
+    /**
+     * Распакованный размер записи должен быть равен указанному.
+     */
+    public ZipContentVerifier entrySize(String name, long size) {
+        checksOf(name).size = size;
+        return this;
+    }
+
+    /**
+     * Проверять CRC32 всех записей архива (каждая запись будет прочитана). Записи, для которых заданы проверки
+     * содержимого, проверяются всегда.
+     */
+    public ZipContentVerifier verifyCrc() {
+        this.crcOfAllEntries = true;
+        return this;
+    }
+
+    /**
+     * Запись должна содержать текст (кодировка UTF-8).
+     */
+    public ZipContentVerifier containsText(String name, String text) {
+        return containsText(name, text, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Запись должна содержать текст в указанной кодировке.
+     */
+    public ZipContentVerifier containsText(String name, String text, Charset charset) {
+        checksOf(name).texts.add(new BytePattern(text, charset));
+        return this;
+    }
+
+    /**
+     * Текст первого элемента XML-записи с указанным именем или путём (см. {@link XmlValueExtractor}) должен быть
+     * равен ожидаемому значению.
+     */
+    public ZipContentVerifier xmlValue(String name, String element, String expected) {
+        checksOf(name).xmlValues.put(element, expected);
+        return this;
+    }
+
+    /**
+     * Выполняет все проверки за один проход по архиву.
+     *
+     * @throws AssertionError со списком всех несоответствий
+     */
+    public void verify() {
+        long start = System.currentTimeMillis();
+        List<String> failures = new ArrayList<>();
+        int files = 0;
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            for (String name : requiredEntries)
+                if (zip.getEntry(name) == null) failures.add(format("нет записи %s", name));
+            for (String name : checks.keySet())
+                if (zip.getEntry(name) == null && !requiredEntries.contains(name))
+                    failures.add(format("нет записи %s", name));
+
+            List<PathMatcher> matchers = new ArrayList<>();
+            for (String glob : requiredPatterns) matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
+            boolean[] matched = new boolean[matchers.size()];
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory()) continue;
+                files++;
+                for (int i = 0; i < matchers.size(); i++)
+                    if (!matched[i] && matchers.get(i).matches(Paths.get(entry.getName()))) matched[i] = true;
+                EntryChecks entryChecks = checks.get(entry.getName());
+                if (entryChecks != null || crcOfAllEntries)
+                    verifyEntry(zip, entry, entryChecks, buffer, failures);
+            }
+            for (int i = 0; i < matchers.size(); i++)
+                if (!matched[i]) failures.add(format("нет записей по шаблону %s", requiredPatterns.get(i)));
+            if (expectedCount != null && expectedCount != files)
+                failures.add(format("файлов в архиве %d, ожидалось %d", files, expectedCount));
+        } catch (IOException e) {
+            failures.add(format("архив не прочитан: %s", e));
+        }
+        logger.info(">>> (zip) Проверка архива {}: файлов - {}, несоответствий - {}, {} мс", archive, files,
+                failures.size(), System.currentTimeMillis() - start);
+        if (!failures.isEmpty())
+            throw new AssertionError(format("Архив %s не прошёл проверку:%n  - %s", archive,
+                    String.join(format("%n  - "), failures)));
+    }
+
+    /**
+     * Читает запись один раз: размер, CRC32 и поиск текста считаются по потоку байт, который при наличии проверок
+     * XML одновременно разбирает StAX-парсер.
+     */
+    private void verifyEntry(ZipFile zip, ZipEntry entry, EntryChecks entryChecks, byte[] buffer,
+                             List<String> failures) throws IOException {
+        String name = entry.getName();
+        Tap tap = new Tap(zip.getInputStream(entry), entryChecks != null ? entryChecks.texts : new ArrayList<>());
+        Map<String, String> xmlFound = new LinkedHashMap<>();
+        try (InputStream in = tap) {
+            if (entryChecks != null && !entryChecks.xmlValues.isEmpty())
+                readXml(in, entryChecks.xmlValues, xmlFound, name, failures);
+            while (in.read(buffer) >= 0) {
+                // Дочитываем запись до конца для CRC и поиска текста
+            }
+        }
+
+        if (entry.getCrc() != -1 && tap.crc.getValue() != entry.getCrc())
+            failures.add(format("%s: CRC32 %08x, в оглавлении %08x", name, tap.crc.getValue(), entry.getCrc()));
+        if (entry.getSize() != -1 && tap.count != entry.getSize())
+            failures.add(format("%s: прочитано %d байт, в оглавлении %d", name, tap.count, entry.getSize()));
+        if (entryChecks == null) return;
+        if (entryChecks.size != null && tap.count != entryChecks.size)
+            failures.add(format("%s: размер %d байт, ожидалось %d", name, tap.count, entryChecks.size));
+        for (BytePattern text : entryChecks.texts)
+            if (!text.found) failures.add(format("%s: не найден текст \"%s\"", name, text.text));
+        for (Map.Entry<String, String> expected : entryChecks.xmlValues.entrySet()) {
+            if (!xmlFound.containsKey(expected.getKey())) {
+                failures.add(format("%s: нет элемента <%s>", name, expected.getKey()));
+            } else if (!expected.getValue().equals(xmlFound.get(expected.getKey()))) {
+                failures.add(format("%s: <%s> = \"%s\", ожидалось \"%s\"", name, expected.getKey(),
+                        xmlFound.get(expected.getKey()), expected.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Читает текст первых элементов с указанными именами или путями ({@link XmlValueExtractor}). Разбор
+     * прекращается, как только найдены все элементы.
+     */
+    private static void readXml(InputStream in, Map<String, String> expected, Map<String, String> found,
+                                String name, List<String> failures) {
+        try {
+            for (Map.Entry<String, String> value : XmlValueExtractor.values(new NonClosing(in),
+                    expected.keySet().toArray(new String[0])).entrySet()) {
+                found.put(value.getKey(), value.getValue().trim());
+            }
+        } catch (IllegalArgumentException e) {
+            failures.add(format("%s: %s", name, e.getMessage()));
+        }
+    }
+
+    private EntryChecks checksOf(String name) {
+        return checks.computeIfAbsent(name, key -> new EntryChecks());
+    }
+
+    /**
+     * Проверки содержимого одной записи.
+     */
+    private static final class EntryChecks {
+        private Long size;
+        private final List<BytePattern> texts = new ArrayList<>();
+        private final Map<String, String> xmlValues = new LinkedHashMap<>();
+    }
+
+    /**
+     * Поиск последовательности байт в потоке (алгоритм Кнута - Морриса - Пратта): состояние сохраняется между
+     * порциями данных, поэтому совпадение на границе буферов не теряется.
+     */
+    private static final class BytePattern {
+        private final String text;
+        private final byte[] pattern;
+        private final int[] failure;
+        private int matched;
+        private boolean found;
+
+        private BytePattern(String text, Charset charset) {
+            this.text = text;
+            this.pattern = text.getBytes(charset);
+            this.failure = new int[pattern.length];
+            for (int i = 1, k = 0; i < pattern.length; i++) {
+                while (k > 0 && pattern[i] != pattern[k]) k = failure[k - 1];
+                if (pattern[i] == pattern[k]) k++;
+                failure[i] = k;
+            }
+            this.found = pattern.length == 0;
+        }
+
+        private void update(byte[] data, int offset, int length) {
+            for (int i = offset, end = offset + length; i < end && !found; i++) {
+                while (matched > 0 && data[i] != pattern[matched]) matched = failure[matched - 1];
+                if (data[i] == pattern[matched]) matched++;
+                if (matched == pattern.length) found = true;
+            }
+        }
+    }
+
+    /**
+     * Поток записи, который по ходу чтения считает байты и CRC32 и передаёт данные поиску текста.
+     */
+    private static final class Tap extends FilterInputStream {
+        private final CRC32 crc = new CRC32();
+        private final List<BytePattern> texts;
+        private long count;
+
+        private Tap(InputStream in, List<BytePattern> texts) {
+            super(in);
+            this.texts = texts;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                crc.update(b);
+                count++;
+                for (BytePattern text : texts) text.update(new byte[]{(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] data, int offset, int length) throws IOException {
+            int read = super.read(data, offset, length);
+            if (read > 0) {
+                crc.update(data, offset, read);
+                count += read;
+                for (BytePattern text : texts) text.update(data, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Пропуск байт исказил бы CRC - данные читаются
+            byte[] skipped = new byte[(int) Math.min(n, BUFFER_SIZE)];
+            int read = read(skipped, 0, skipped.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+
+    /**
+     * Не закрывает поток записи при закрытии парсера: после разбора запись дочитывается для CRC.
+     */
+    private static final class NonClosing extends FilterInputStream {
+        private NonClosing(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -6,18 +6,18 @@ import com.codeborne.selenide.SelenideElement;
 import com.codeborne.selenide.WebDriverRunner;
 import helpers.*;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
-import org.apache.log4j.PropertyConfigurator;
 import org.junit.Assert;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.Keys;
 import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FilenameFilter;
-import java.io.IOException;
-import java.nio.file.Files;
+import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.*;
 import java.util.zip.ZipFile;
@@ -32,7 +32,8 @@ public abstract class AbstractPage {
      ******************************************************************************************************************/
     protected ConfigContainer config;
     protected Logger logger;
-    protected DateTimeHelper dateTimeHelper = new DateTimeHelper();
+    protected DateTimeHelper dateTimeHelper;
+    protected WaitHelper waitHelper;
     protected int delayTimeMs = 200000;
     protected long pollingIntervalMs = 50;
     protected int shortDelayTimeMs = 2000;
@@ -51,16 +52,21 @@ public abstract class AbstractPage {
     // из-за бездействия автотеста
     private static final int DEFAULT_POLLING_INTERVAL_SECONDS = 100;
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebDriverContainer.class);
+
     /*******************************************************************************************************************
-     * Конструктор класса. Отвечает за инициализацию всех полей класса
+     * Конструктор класса. Отвечает за инициализацию всех полей класса.
+     * Логирование настраивается один раз на JVM, хелперы общие для всех страниц сценария (см. {@link Pages}).
      ******************************************************************************************************************/
 
     public AbstractPage() {
+        LoggingInitializer.init();
         this.config = ConfigContainer.getInstance();
-        this.logger = LogManager.getLogger(WebDriverContainer.class);
+        this.logger = LOGGER;
+        this.dateTimeHelper = Pages.dateTimeHelper();
+        this.waitHelper = Pages.waitHelper();
         this.repeatNumber = 85;
         this.delimiter = ".";
-        PropertyConfigurator.configure("src/main/resources/log4j.properties");
     }
 
     /*******************************************************************************************************************
@@ -89,10 +95,10 @@ public abstract class AbstractPage {
      * Совершает переход на предыдущую страницу
      */
     public AbstractPage backPage() {
-        sleep(normDelayTimeMs);
+        waitHelper.waitForPageReady(normDelayTimeMs);
         logger.info(">>> Переход на предыдущую страницу");
         back();
-        sleep(shortDelayTimeMs);
+        waitHelper.waitForPageReady(shortDelayTimeMs);
         return this;
     }
 
@@ -104,17 +110,18 @@ public abstract class AbstractPage {
      * @return тип локатора в стороковом представлении ("css", "xpath")
      */
     protected String getLocatorType(String locator) {
-        return locator.contains("//") ? "xpath" : "css";
+        return Locator.of(locator).getStrategy() == Locator.Strategy.XPATH ? "xpath" : "css";
     }
 
     /**
-     * Возвращает элемент типа SelenideElement ($x или $) автоматически распознав тип локатора по его содержимому.
+     * Возвращает элемент типа SelenideElement автоматически распознав тип локатора по его содержимому
+     * (тип распознаётся один раз и кэшируется, см. {@link Locator}).
      *
      * @param locator локатор элемента
-     * @return элемент типа SelenideElement ($x или $)
+     * @return элемент типа SelenideElement
      */
     protected SelenideElement getSelenideElement(String locator) {
-        return locator.contains("//") ? $x(locator) : $(locator);
+        return Locator.of(locator).element();
     }
 
     /**
@@ -123,10 +130,8 @@ public abstract class AbstractPage {
      * @param locator локатора элемента xpath или css
      */
     public AbstractPage sendButtonPressesBackSpace(String locator) {
-        logger.info(format("Очищает поле ввода у элемента {%s}", locator));
-        SelenideElement el = getSelenideElement(locator);
-        while (el.val().length() != 0)
-            el.sendKeys(Keys.BACK_SPACE);
+        logger.info("Очищает поле ввода у элемента {{}}", locator);
+        logger.info("{}", pressKeysUntilEmpty(getSelenideElement(locator), Keys.BACK_SPACE.toString()));
         return this;
     }
 
@@ -136,9 +141,8 @@ public abstract class AbstractPage {
      * @param element элемент страницы
      */
     public AbstractPage sendButtonPressesBackSpace(SelenideElement element) {
-        logger.info(format("Очищает поле ввода у элемента {%s}", element));
-        while (element.val().length() != 0)
-            element.sendKeys(Keys.BACK_SPACE);
+        logger.info("Очищает поле ввода у элемента {{}}", element);
+        logger.info("{}", pressKeysUntilEmpty(element, Keys.BACK_SPACE.toString()));
         return this;
     }
 
@@ -148,24 +152,53 @@ public abstract class AbstractPage {
      * @param element элемент страницы
      */
     public AbstractPage sendButtonPressesBackSpaceAndDelete(SelenideElement element) {
-        logger.info("Очищает поле ввода у элемента {%s}");
-        while (element.val().length() != 0) {
-            element.sendKeys(Keys.BACK_SPACE);
-            element.sendKeys(Keys.DELETE);
-        }
+        logger.info("Очищает поле ввода у элемента {{}}", element);
+        logger.info("{}", pressKeysUntilEmpty(element, Keys.BACK_SPACE.toString() + Keys.DELETE));
         return this;
     }
 
+    /**
+     * Быстро очищает поле ввода за одно обращение к WebDriver: значение сбрасывается через JavaScript, после чего
+     * генерируются события input и change (как при вводе с клавиатуры).
+     *
+     * @param locator локатор элемента xpath или css
+     * @return отчёт об очистке
+     */
+    public FillReport fastClear(String locator) {
+        long start = System.currentTimeMillis();
+        JsCommandBatch.Result result = jsBatch().setValue(locator, "").execute().get(0);
+        Assert.assertTrue(result.toString(), result.isSuccess());
+        Assert.assertEquals("Поле ввода не очищено", "", result.getValue());
+        FillReport report = new FillReport(format("Быстрая очистка {%s}", locator), 1, System.currentTimeMillis() - start);
+        logger.info("{}", report);
+        return report;
+    }
 
+    /**
+     * Нажимает клавиши одной командой столько раз, сколько символов в поле, пока поле не станет пустым.
+     * Количество обращений к WebDriver не зависит от длины значения.
+     */
+    private FillReport pressKeysUntilEmpty(SelenideElement element, String keysPerCharacter) {
+        long start = System.currentTimeMillis();
+        WebElement input = element.toWebElement();
+        int roundTrips = 2;
+        String value = input.getAttribute("value");
+        while (value != null && value.length() != 0) {
+            input.sendKeys(StringUtils.repeat(keysPerCharacter, value.length()));
+            value = input.getAttribute("value");
+            roundTrips += 2;
+        }
+        return new FillReport(format("Очистка поля {%s}", element), roundTrips, System.currentTimeMillis() - start);
+    }
 
     /**
      * Обновляет страницу
      */
     public AbstractPage reloadPage() {
-        sleep(shortDelayTimeMs);
+        waitHelper.waitForPageReady(shortDelayTimeMs);
         logger.info(">>> (reload) Обновление страницы");
         refresh();
-        sleep(shortDelayTimeMs);
+        waitHelper.waitForPageReady(shortDelayTimeMs);
         return this;
     }
 
@@ -174,9 +207,9 @@ public abstract class AbstractPage {
      */
     public AbstractPage clear() {
         Selenide.clearBrowserLocalStorage();
-        sleep(shortDelayTimeMs);
+        waitHelper.pause(shortDelayTimeMs);
         Selenide.clearBrowserCookies();
-        sleep(shortDelayTimeMs);
+        waitHelper.pause(shortDelayTimeMs);
         return this;
     }
 
@@ -184,23 +217,52 @@ public abstract class AbstractPage {
      * Нажимает в пустое место для закрытия всплывшего окна
      */
     public void pressIntoEmptySpace() {
-        sleep(normDelayTimeMs);
+        waitHelper.waitForPageReady(normDelayTimeMs);
         logger.info(">>> Нажимает в пустое место для закрытия всплывшего окна");
-        $("body").shouldBe(visible, duration).click();
-        sleep(shortDelayTimeMs);
+        waitVisible(Locator.of("body"), duration).click();
+        waitHelper.waitForPageReady(shortDelayTimeMs);
     }
 
 
+    /**
+     * Ожидает видимости элемента. Ожидание выполняется в браузере одним асинхронным вызовом (без опроса по WebDriver),
+     * для локаторов Sizzle и при отключённом ожидании в браузере - средствами Selenide.
+     *
+     * @param locator локатор элемента
+     * @param timeout максимальное время ожидания
+     * @return видимый элемент
+     */
+    protected SelenideElement waitVisible(Locator locator, Duration timeout) {
+        SelenideElement element = locator.element();
+        if (locator.getStrategy() == Locator.Strategy.SIZZLE || !waitHelper.isBrowserWaitEnabled())
+            return element.shouldBe(visible, timeout);
+        long start = System.currentTimeMillis();
+        Boolean visibleInBrowser = waitHelper.waitForVisible(locator.getValue(), timeout.toMillis());
+        if (Boolean.TRUE.equals(visibleInBrowser)) return element;
+        // Если время истекло, проверка Selenide лишь формирует привычное сообщение об ошибке;
+        // если проверить в браузере не удалось, Selenide ожидает элемент весь таймаут
+        Duration remaining = visibleInBrowser == null ? timeout
+                : Duration.ofMillis(Math.max(0, timeout.toMillis() - (System.currentTimeMillis() - start)));
+        return element.shouldBe(visible, remaining);
+    }
+
     /**
      * Отключает у всех <input> возможность открытия Windows-окна выбора файлов
      */
     protected void disableWindowsUploader() {
         logger.info("!!! Отключает у всех <input> возможность открытия Windows-окна выбора файлов");
-        executeJavaScript(
-                "HTMLInputElement.prototype.click = function() {" +
-                        "  if(this.type !== 'file') HTMLElement.prototype.click.call(this);" +
-                        "};"
-        );
+        jsBatch().disableWindowsUploader().execute();
+    }
+
+    /**
+     * Создаёт пакет DOM-операций, выполняемый в браузере за одно обращение к WebDriver.
+     * Например, отключение окна выбора файлов и нажатие на кнопку загрузки можно отправить одним пакетом:
+     * jsBatch().disableWindowsUploader().click(locator).execute()
+     *
+     * @return пустой пакет операций
+     */
+    protected JsCommandBatch jsBatch() {
+        return new JsCommandBatch();
     }
 
     /**
@@ -209,15 +271,11 @@ public abstract class AbstractPage {
      * @param locator селектор элемента на который производится нажатие
      */
     public AbstractPage jsClick(String locator) {
-        logger.info(format("Ожидает появления элемента {%s}", locator));
+        logger.info("Ожидает появления элемента {{}}", locator);
         getSelenideElement(locator).shouldBe(exist, duration);
-        logger.info(format("Формирование js-script для локатора {%s}", locator));
-        Map<String, String> script = new HashMap<>();
-        script.put("css", "document.querySelector(\"%s\").click();");
-        script.put("xpath", "document.evaluate(\"%s\", document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue.click();");
-        String finalScript = format(script.get(getLocatorType(locator)), locator);
-        logger.info(format("Исполняет скрипт клика \n{%s}", finalScript));
-        executeJavaScript(finalScript);
+        logger.info("Исполняет js-клик по локатору {{}}", locator);
+        JsCommandBatch.Result result = jsBatch().click(locator).execute().get(0);
+        Assert.assertTrue(result.toString(), result.isSuccess());
         return this;
     }
 
@@ -227,7 +285,7 @@ public abstract class AbstractPage {
      * @param element элемент на который производится нажатие
      */
     public AbstractPage jsClick(SelenideElement element) {
-        logger.info(format("Нажимает на элемент с помощью js-скрипта {%s}", element));
+        logger.info("Нажимает на элемент с помощью js-скрипта {{}}", element);
         element.shouldBe(enabled);
         String script = "arguments[0].click();";
         executeJavaScript(script, element);
@@ -241,9 +299,8 @@ public abstract class AbstractPage {
      * @return число типа double
      */
     public double extractDoubleNumberFromTextRULocale(String str) {
-        logger.info(format("Извлекается число из российского текста {%s}", str));
-        return Double.parseDouble(str.replaceAll("[^,.0123456789]", "")
-                .replace(",", "."));
+        logger.debug("Извлекается число из российского текста {{}}", str);
+        return NumberTextParser.parseDouble(str, NumberTextParser.NumberLocale.RU);
     }
 
     /**
@@ -253,8 +310,30 @@ public abstract class AbstractPage {
      * @return число типа double
      */
     public double extractNumberFromTextENGLocale(String str) {
-        logger.info("Извлекается число из английского текста");
-        return Double.parseDouble(str.replaceAll("[^,.0123456789]", ""));
+        logger.debug("Извлекается число из английского текста {{}}", str);
+        return NumberTextParser.parseDouble(str, NumberTextParser.NumberLocale.EN);
+    }
+
+    /**
+     * Извлекает числовые значения из списка текстов российской локализации (например, ячеек столбца таблицы)
+     *
+     * @param cells тексты ячеек
+     * @return массив чисел в порядке ячеек
+     */
+    public double[] extractDoubleNumbersFromTextsRULocale(List<String> cells) {
+        logger.debug("Извлекаются числа из {} ячеек российского текста", cells.size());
+        return NumberTextParser.parseDoubles(cells, NumberTextParser.NumberLocale.RU);
+    }
+
+    /**
+     * Извлекает числовые значения без потери точности из списка текстов российской локализации
+     *
+     * @param cells тексты ячеек
+     * @return массив чисел в порядке ячеек
+     */
+    public BigDecimal[] extractDecimalNumbersFromTextsRULocale(List<String> cells) {
+        logger.debug("Извлекаются числа из {} ячеек российского текста", cells.size());
+        return NumberTextParser.parseDecimals(cells, NumberTextParser.NumberLocale.RU);
     }
 
     /**
@@ -264,8 +343,8 @@ public abstract class AbstractPage {
      * @return Строковое представление числа
      */
     public String extractDoubleFromTextInTextView(String str) {
-        logger.info("Извлекается число из текста в текстовом виде без учета локализации языка");
-        return str.replaceAll("[^,.0123456789]", "");
+        logger.debug("Извлекается число из текста в текстовом виде без учета локализации языка");
+        return NumberTextParser.keepDigitsAndSeparators(str);
     }
 
     /**
@@ -275,8 +354,8 @@ public abstract class AbstractPage {
      * @return Строковое представление числа
      */
     public String extractIntegerFromTextInTextView(String str) {
-        logger.info("Извлекается целое число из текста в текстовом виде без учета локализации языка");
-        return Integer.toString(Integer.parseInt(str.replaceAll("[^0123456789]", "")));
+        logger.debug("Извлекается целое число из текста в текстовом виде без учета локализации языка");
+        return Integer.toString(NumberTextParser.parseAllDigitsAsInt(str));
     }
 
     /**
@@ -285,11 +364,49 @@ public abstract class AbstractPage {
      * @param n обрабатываемое число
      */
     public String formatNumberToString(double n) {
-        logger.info(format("Преобразовывается числовое значение {%s} в строковое для ввода", n));
+        logger.info("Преобразовывается числовое значение {{}} в строковое для ввода", n);
         return Double.toString(n).replace(".", ",");
     }
 
 
+    /**
+     * Ожидает окончания загрузки нового файла в папку загрузок сценария.
+     * Время ожидания задаётся настройкой DownloadTimeoutMs (по умолчанию 60000).
+     *
+     * @param glob шаблон имени файла, например "*.zip", или null для любого файла
+     * @return путь к загруженному файлу
+     */
+    public Path waitForDownloadedFile(String glob) {
+        logger.info("Ожидает загрузку файла {{}}", glob == null ? "*" : glob);
+        DownloadWatcher watcher = DownloadWatcher.current();
+        Assert.assertNotNull("[ОШИБКА]: наблюдение за папкой загрузок не запущено", watcher);
+        long timeoutMs = Long.parseLong(config.getConfigProperty("DownloadTimeoutMs", "60000"));
+        Path file = watcher.await(glob, Duration.ofMillis(timeoutMs));
+        Assert.assertNotNull(format("[ОШИБКА]: файл {%s} не загружен в папку %s за %d мс",
+                glob, watcher.getDirectory(), timeoutMs), file);
+        return file;
+    }
+
+    /**
+     * Ожидает окончания загрузки любого нового файла в папку загрузок сценария.
+     *
+     * @return путь к загруженному файлу
+     */
+    public Path waitForDownloadedFile() {
+        return waitForDownloadedFile(null);
+    }
+
+    /**
+     * Возвращает проверку содержимого zip-архива без распаковки (см. {@link ZipContentVerifier}).
+     *
+     * @param archive путь к архиву, например результат {@link #waitForDownloadedFile(String)}
+     * @return проверка, выполняемая методом verify()
+     */
+    public ZipContentVerifier zipContent(Path archive) {
+        logger.info("Проверяет содержимое архива {{}}", archive);
+        return ZipContentVerifier.of(archive);
+    }
+
     /**
      * Возвращает список имен файлов в указанном каталоге.
      *
@@ -317,7 +434,7 @@ public abstract class AbstractPage {
      */
     private String[] getZipFileNames(String folderName) {
         File file = new File(folderName);
-        logger.info(format(">>> Получение наименований файлов с расширением .zip во временной папке: %s", folderName));
+        logger.info(">>> Получение наименований файлов с расширением .zip во временной папке: {}", folderName);
         String[] files = file.list(new FilenameFilter() {
 
             @Override
@@ -328,30 +445,20 @@ public abstract class AbstractPage {
         });
         logger.info(">>> В папке содержатся файлы с именами: ");
         for (String filename : files) {
-            logger.info(format(">>>> %s", filename));
+            logger.info(">>>> {}", filename);
         }
         return files;
     }
 
     /**
      * Удаляет временную папку теста для загрузки файлов вместе с содержащимися в ней файлами.
+     * Удаление выполняется в фоне, см. {@link TempFolderCleaner}.
      *
      * @param file путь к папке
      */
     private void deleteTemporaryFolderWithFiles(File file) {
-        logger.info(format("Выполняется удаление временной папки и файлов внутри: [%s]", file));
-        if (!file.exists()) {
-            logger.info(format("Временная папка по заданному пути: [%s] не существует.", file));
-            return;
-        }
-
-        if (file.isDirectory())
-            for (File f : Objects.requireNonNull(file.listFiles())) deleteTemporaryFolderWithFiles(f);
-        try {
-            Files.delete(file.toPath());
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        logger.info("Временная папка поставлена в очередь на удаление: [{}]", file);
+        TempFolderCleaner.schedule(file.toPath());
     }
 
     /**
@@ -360,7 +467,7 @@ public abstract class AbstractPage {
      * @param url ожидаемый адрес
      */
     public void verifyUrl(String url) {
-        logger.info(format("Проверяет, что открыт { %s }", url));
+        logger.info("Проверяет, что открыт { {} }", url);
         Assert.assertEquals(
                 WebDriverRunner.url(), url
         );
@@ -373,7 +480,7 @@ public abstract class AbstractPage {
      * @param url2 ожидаемый адрес 2
      */
     public void verifyUrl(String url1, String url2) {
-        logger.info(format("Проверяет, что открыт { %s } или { %s }", url1, url2));
+        logger.info("Проверяет, что открыт { {} } или { {} }", url1, url2);
         Assert.assertTrue(
                 WebDriverRunner.url().equals(url1)
                         || WebDriverRunner.url().equals(url2)
@@ -390,7 +497,7 @@ public abstract class AbstractPage {
         logger.info("Проверка наличия ведущей косой черты");
         if (!dir.substring(dir.length() - 1).equals("/")) dir += "/";
         String path = dir + file;
-        logger.info(format("Удаляет документ {%s}", path));
+        logger.info("Удаляет документ {{}}", path);
         File document = new File(path);
         Assert.assertEquals(file, document.getName());
         boolean isFileDeleted = document.delete();
@@ -399,18 +506,50 @@ public abstract class AbstractPage {
 
     /**
      * Замедленное заполнение поля ввода. Если поле ввода, при быстром вводе заполняется не корректно.
-     * К примеру: вводимое значение "закупка", а получаемое "купказа". Для обхода перемешивания добавлена пауза при вводе.
+     * К примеру: вводимое значение "закупка", а получаемое "купказа". Для обхода перемешивания каждый следующий символ
+     * вводится только после того, как поле отобразило предыдущий (см. {@link #adaptiveSendKeys}).
      *
      * @param element поле ввода, в которое происходит ввод строки
      * @param keys    вводимое строковое значение
      */
     public void slowSendKeys(SelenideElement element, String keys) {
-        logger.info(format("Замедленно вводит текст {%s}", keys));
-        for (Character key : keys.toCharArray()) {
-            element.sendKeys(key.toString());
-            sleep(300);
+        logger.info("Замедленно вводит текст {{}}", keys);
+        adaptiveSendKeys(element, keys);
+    }
+
+    /**
+     * Посимвольный ввод с адаптивной паузой: следующий символ вводится, как только значение поля отразило
+     * предыдущий, но не позднее чем через 300 мс (прежняя фиксированная пауза).
+     *
+     * @param element поле ввода, в которое происходит ввод строки
+     * @param keys    вводимое строковое значение
+     * @return отчёт о вводе
+     */
+    public FillReport adaptiveSendKeys(SelenideElement element, String keys) {
+        long start = System.currentTimeMillis();
+        WebElement input = element.toWebElement();
+        int roundTrips = 1;
+        String initial = input.getAttribute("value");
+        String expected = initial == null ? "" : initial;
+        roundTrips++;
+        for (char key : keys.toCharArray()) {
+            expected += key;
+            input.sendKeys(String.valueOf(key));
+            roundTrips++;
+            long keyDeadline = System.currentTimeMillis() + 300;
+            String value = input.getAttribute("value");
+            roundTrips++;
+            while (!expected.equals(value) && System.currentTimeMillis() < keyDeadline) {
+                sleep(10);
+                value = input.getAttribute("value");
+                roundTrips++;
+            }
         }
-        Assert.assertEquals("Значение установлено не корректно", keys, element.val());
+        FillReport report = new FillReport(format("Посимвольный ввод {%s}", keys), roundTrips,
+                System.currentTimeMillis() - start);
+        logger.info("{}", report);
+        Assert.assertEquals("Значение установлено не корректно", expected, input.getAttribute("value"));
+        return report;
     }
 
     /**
@@ -0,0 +1,42 @@
+package pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+
+/**
+ * Нативный поиск браузера (id, css, xpath) с учётом в {@link SelectorStatistics}.
+ * <p>
+ * Не является By.ByCssSelector, поэтому Selenide выполняет его нативно и при Configuration.selectorMode = Sizzle:
+ * режим Sizzle остаётся для строковых селекторов $("..."), а локаторы {@link Locator} без псевдоклассов Sizzle
+ * ищутся через querySelector.
+ */
+public class ByNative extends By {
+
+    private final By by;
+    private final Locator.Strategy strategy;
+
+    ByNative(By by, Locator.Strategy strategy) {
+        this.by = by;
+        this.strategy = strategy;
+    }
+
+    @Override
+    public List<WebElement> findElements(SearchContext context) {
+        SelectorStatistics.lookup(strategy);
+        return by.findElements(context);
+    }
+
+    @Override
+    public WebElement findElement(SearchContext context) {
+        SelectorStatistics.lookup(strategy);
+        return by.findElement(context);
+    }
+
+    @Override
+    public String toString() {
+        return by.toString();
+    }
+}
@@ -0,0 +1,93 @@
+package pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * Поиск элементов через Sizzle - только для селекторов с псевдоклассами, которых нет в нативном querySelector
+ * (:contains, :eq, :visible и т.д.).
+ * <p>
+ * Sizzle внедряется в страницу один раз на документ: поиск сначала выполняется без передачи исходного кода Sizzle,
+ * и только если на странице его ещё нет, повторяется вместе с внедрением.
+ */
+public class BySizzle extends By {
+
+    // Поиск, если Sizzle уже есть на странице; null - Sizzle нужно внедрить
+    private static final String FIND_SCRIPT =
+            "if (!window.Sizzle) return null;" +
+            "return window.Sizzle(arguments[0], arguments[1] || document);";
+
+    private static volatile String sizzleSource;
+
+    private final String selector;
+
+    public BySizzle(String selector) {
+        this.selector = selector;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<WebElement> findElements(SearchContext context) {
+        SelectorStatistics.lookup(Locator.Strategy.SIZZLE);
+        JavascriptExecutor js = executorOf(context);
+        Object root = context instanceof WebElement ? context : null;
+        Object found = js.executeScript(FIND_SCRIPT, selector, root);
+        if (found == null) {
+            SelectorStatistics.sizzleInjected();
+            found = js.executeScript(getSizzleSource() + ";\n" + FIND_SCRIPT, selector, root);
+        }
+        return found == null ? Collections.<WebElement>emptyList() : (List<WebElement>) found;
+    }
+
+    @Override
+    public WebElement findElement(SearchContext context) {
+        List<WebElement> elements = findElements(context);
+        if (elements.isEmpty()) throw new NoSuchElementException(format("Элемент не найден (Sizzle): %s", selector));
+        return elements.get(0);
+    }
+
+    @Override
+    public String toString() {
+        return "By.sizzle: " + selector;
+    }
+
+    private static JavascriptExecutor executorOf(SearchContext context) {
+        WebDriver driver = context instanceof WrapsDriver ? ((WrapsDriver) context).getWrappedDriver() : (WebDriver) context;
+        return (JavascriptExecutor) driver;
+    }
+
+    /**
+     * Исходный код Sizzle из библиотеки Selenide (читается один раз).
+     */
+    private static String getSizzleSource() {
+        String source = sizzleSource;
+        if (source != null) return source;
+        try (InputStream input = BySizzle.class.getResourceAsStream("/sizzle.js")) {
+            if (input == null) throw new IllegalStateException("Не найден ресурс sizzle.js на classpath");
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            int read;
+            while ((read = input.read(chunk)) != -1) buffer.write(chunk, 0, read);
+            source = new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать sizzle.js", e);
+        }
+        sizzleSource = source;
+        return source;
+    }
+}
@@ -22,10 +22,12 @@ public class CommonPage extends AbstractPage {
      ******************************************************************************************************************/
 
     // Логотип маркета для перехода на главную страницу
-    private final SelenideElement mainLogo = $("#headerPanelLogo");
+    private static final Locator MAIN_LOGO = LocatorRegistry.register(CommonPage.class, "MAIN_LOGO", "#headerPanelLogo");
+    private final SelenideElement mainLogo = MAIN_LOGO.element();
     //------------------------------------------------------------------------------------------------------------------
     // Карточка сделки по её номеру
-    private static final String DEAL_WITH_ID = "[id='%s']";
+    private static final LocatorTemplate DEAL_WITH_ID =
+            LocatorRegistry.registerTemplate(CommonPage.class, "DEAL_WITH_ID", "[id='%s']");
     //------------------------------------------------------------------------------------------------------------------
 
     /*******************************************************************************************************************
@@ -39,11 +41,11 @@ public class CommonPage extends AbstractPage {
      */
     public CommonPage pressMainLogo() {
         logger.info("Ожидает главное лого");
-        mainLogo.shouldBe(visible, duration);
-        sleep(normDelayTimeMs);
+        waitVisible(MAIN_LOGO, duration);
+        waitHelper.waitForElementStable(mainLogo, normDelayTimeMs);
         logger.info("Нажимает на главное лого");
         mainLogo.click();
-        sleep(normDelayTimeMs);
+        waitHelper.waitForPageReady(normDelayTimeMs);
         return this;
     }
 
@@ -0,0 +1,185 @@
+package pages;
+
+import com.codeborne.selenide.ElementsCollection;
+import com.codeborne.selenide.SelenideElement;
+import org.openqa.selenium.By;
+
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import static com.codeborne.selenide.Selenide.$;
+import static com.codeborne.selenide.Selenide.$$;
+import static java.lang.String.format;
+
+/**
+ * Скомпилированный локатор элемента: стратегия поиска определяется один раз при создании.
+ * <p>
+ * Стратегия выбирается по содержимому строки: xpath, если содержит "//", иначе css. Локаторы вида "#id" и
+ * "[id='id']" сводятся к самому дешёвому поиску By.id. Css-селекторы с псевдоклассами, которых нет в нативном
+ * querySelector (:contains, :eq, :visible и т.д.), распознаются заранее и выполняются через Sizzle
+ * ({@link BySizzle}), все остальные - нативно ({@link ByNative}) независимо от Configuration.selectorMode.
+ * Строковые локаторы кэшируются, поэтому повторное обращение к одному и тому же локатору не разбирает строку заново.
+ */
+public final class Locator {
+
+    /**
+     * Стратегия поиска элемента.
+     */
+    public enum Strategy {
+        ID, CSS, XPATH, SIZZLE
+    }
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    // Максимальное количество кэшируемых строковых локаторов
+    private static final int MAX_CACHED_LOCATORS = 4096;
+
+    private static final ConcurrentHashMap<String, Locator> cache = new ConcurrentHashMap<>();
+    private static final XPathFactory xpathFactory = XPathFactory.newInstance();
+    private static final Pattern SIMPLE_ID = Pattern.compile("#[A-Za-z_][\\w-]*");
+    private static final Pattern ID_ATTRIBUTE = Pattern.compile("\\[id=(['\"])([^'\"]+)\\1]");
+    // Псевдоклассы Sizzle/jQuery, которых нет в нативном querySelector (":first" - да, ":first-child" - нет)
+    private static final Pattern SIZZLE_ONLY = Pattern.compile(
+            ":(contains|eq|gt|lt|nth|first|last|even|odd|visible|hidden|has|header|input|button|text|checkbox|" +
+                    "radio|submit|image|reset|file|password|selected|parent|animated)(?![\\w-])");
+
+    private final String value;
+    private final Strategy strategy;
+    private final By by;
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    private Locator(String value, Strategy strategy, By by) {
+        this.value = value;
+        this.strategy = strategy;
+        this.by = by;
+    }
+
+    /**
+     * Возвращает скомпилированный локатор для строки (из кэша или компилирует новый).
+     *
+     * @param value локатор xpath или css
+     * @return скомпилированный локатор
+     * @throws IllegalArgumentException если локатор синтаксически некорректен
+     */
+    public static Locator of(String value) {
+        Locator locator = cache.get(value);
+        if (locator != null) return locator;
+        locator = compile(value);
+        if (cache.size() < MAX_CACHED_LOCATORS) cache.putIfAbsent(value, locator);
+        return locator;
+    }
+
+    /**
+     * Компилирует локатор без кэширования.
+     */
+    static Locator compile(String value) {
+        if (value == null || value.trim().isEmpty()) throw new IllegalArgumentException("Пустой локатор");
+        Strategy strategy = detectStrategy(value);
+        validate(value, strategy);
+        return new Locator(value, strategy, byOf(value, strategy));
+    }
+
+    /**
+     * Создаёт локатор с заранее известной стратегией (для шаблонов, стратегия которых определена при компиляции).
+     */
+    static Locator withStrategy(String value, Strategy strategy) {
+        return new Locator(value, strategy, byOf(value, strategy));
+    }
+
+    static Strategy detectStrategy(String value) {
+        if (value.contains("//")) return Strategy.XPATH;
+        if (SIMPLE_ID.matcher(value).matches() || ID_ATTRIBUTE.matcher(value).matches()) return Strategy.ID;
+        if (value.indexOf(':') >= 0 && SIZZLE_ONLY.matcher(value).find()) return Strategy.SIZZLE;
+        return Strategy.CSS;
+    }
+
+    private static By byOf(String value, Strategy strategy) {
+        switch (strategy) {
+            case XPATH:
+                return new ByNative(By.xpath(value), strategy);
+            case SIZZLE:
+                return new BySizzle(value);
+            case ID:
+                // "#id" или "[id='id']" (кавычки в значении id исключены шаблоном)
+                return new ByNative(By.id(value.charAt(0) == '#'
+                        ? value.substring(1)
+                        : value.substring(5, value.length() - 2)), strategy);
+            default:
+                return new ByNative(By.cssSelector(value), strategy);
+        }
+    }
+
+    private static void validate(String value, Strategy strategy) {
+        if (strategy == Strategy.XPATH) {
+            try {
+                synchronized (xpathFactory) {
+                    xpathFactory.newXPath().compile(value);
+                }
+            } catch (XPathExpressionException e) {
+                throw new IllegalArgumentException(format("Некорректный xpath-локатор: %s", value), e);
+            }
+        } else if (strategy == Strategy.CSS || strategy == Strategy.SIZZLE) {
+            int brackets = 0;
+            int parentheses = 0;
+            char quote = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (quote != 0) {
+                    if (c == '\\') i++;
+                    else if (c == quote) quote = 0;
+                } else if (c == '\'' || c == '"') quote = c;
+                else if (c == '[') brackets++;
+                else if (c == ']') brackets--;
+                else if (c == '(') parentheses++;
+                else if (c == ')') parentheses--;
+                if (brackets < 0 || parentheses < 0) break;
+            }
+            if (quote != 0 || brackets != 0 || parentheses != 0)
+                throw new IllegalArgumentException(format("Некорректный css-локатор: %s", value));
+        }
+    }
+
+    /**
+     * @return исходная строка локатора
+     */
+    public String getValue() {
+        return value;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * @return готовый к использованию By
+     */
+    public By by() {
+        return by;
+    }
+
+    /**
+     * @return элемент страницы, найденный по локатору
+     */
+    public SelenideElement element() {
+        return $(by);
+    }
+
+    /**
+     * @return коллекция элементов страницы, найденных по локатору
+     */
+    public ElementsCollection elements() {
+        return $$(by);
+    }
+
+    @Override
+    public String toString() {
+        return format("%s: %s", strategy, value);
+    }
+}
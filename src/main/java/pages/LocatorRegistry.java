@@ -0,0 +1,187 @@
+package pages;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+
+/**
+ * Реестр локаторов, объявленных страницами статически.
+ * <p>
+ * Страница объявляет локаторы через {@link #register} и {@link #registerTemplate} в static-полях. Локаторы
+ * компилируются при загрузке класса страницы; ошибки не прерывают загрузку, а накапливаются и выводятся все сразу
+ * методом {@link #validate}. Метод {@link #validatePages} один раз при старте прогона находит на classpath все
+ * классы страниц и проверяет их локаторы до начала первого сценария.
+ * <pre>
+ * private static final Locator MAIN_LOGO = LocatorRegistry.register(CommonPage.class, "MAIN_LOGO", "#headerPanelLogo");
+ * </pre>
+ */
+public final class LocatorRegistry {
+
+    public static final Logger logger = LoggerFactory.getLogger(LocatorRegistry.class);
+
+    private static final Map<String, Object> locators = new ConcurrentHashMap<>();
+    private static final List<String> errors = new CopyOnWriteArrayList<>();
+    // Базовые классы, страницы которых уже проверены
+    private static final Set<Class<?>> validated = new HashSet<>();
+
+    private LocatorRegistry() {
+    }
+
+    /**
+     * Регистрирует локатор страницы.
+     *
+     * @param page  класс страницы
+     * @param name  имя локатора
+     * @param value локатор xpath или css
+     * @return скомпилированный локатор
+     */
+    public static Locator register(Class<?> page, String name, String value) {
+        try {
+            Locator locator = Locator.of(value);
+            locators.put(key(page, name), locator);
+            return locator;
+        } catch (IllegalArgumentException e) {
+            errors.add(format("%s: %s", key(page, name), e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Регистрирует параметризованный локатор страницы.
+     *
+     * @param page     класс страницы
+     * @param name     имя локатора
+     * @param template шаблон локатора с подстановками %s
+     * @return скомпилированный шаблон
+     */
+    public static LocatorTemplate registerTemplate(Class<?> page, String name, String template) {
+        try {
+            LocatorTemplate compiled = LocatorTemplate.compile(template);
+            locators.put(key(page, name), compiled);
+            return compiled;
+        } catch (IllegalArgumentException e) {
+            errors.add(format("%s: %s", key(page, name), e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Загружает указанные классы страниц (и тем самым компилирует их локаторы) и проверяет, что все
+     * зарегистрированные локаторы корректны.
+     *
+     * @param pages классы страниц
+     * @throws IllegalStateException со списком всех некорректных локаторов
+     */
+    public static void validate(Class<?>... pages) {
+        for (Class<?> page : pages) {
+            try {
+                Class.forName(page.getName(), true, page.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        if (!errors.isEmpty())
+            throw new IllegalStateException("Некорректные локаторы страниц:\n" + String.join("\n", errors));
+        logger.info("(locators) Проверено локаторов: {}", locators.size());
+    }
+
+    /**
+     * Находит все классы страниц (наследники base в пакете base и вложенных пакетах) и проверяет их локаторы.
+     * Выполняется один раз на JVM; повторные вызовы ничего не делают.
+     *
+     * @param base базовый класс страниц
+     * @throws IllegalStateException со списком всех некорректных локаторов
+     */
+    public static void validatePages(Class<?> base) {
+        synchronized (validated) {
+            if (validated.contains(base)) return;
+            List<Class<?>> pages = findPages(base);
+            validate(pages.toArray(new Class<?>[0]));
+            logger.info("(locators) Проверено классов страниц: {}", pages.size());
+            validated.add(base);
+        }
+    }
+
+    /**
+     * Находит наследников base в пакете base и вложенных пакетах (каталоги и jar-файлы classpath).
+     * Классы не инициализируются.
+     */
+    static List<Class<?>> findPages(Class<?> base) {
+        String path = base.getPackage().getName().replace('.', '/') + "/";
+        ClassLoader loader = base.getClassLoader();
+        Set<String> classNames = new TreeSet<>();
+        try {
+            Enumeration<URL> roots = loader.getResources(path);
+            while (roots.hasMoreElements()) {
+                URL root = roots.nextElement();
+                if ("file".equals(root.getProtocol())) {
+                    Path directory = Paths.get(root.toURI());
+                    try (Stream<Path> files = Files.walk(directory)) {
+                        files.map(file -> path + directory.relativize(file).toString().replace(File.separatorChar, '/'))
+                                .filter(name -> name.endsWith(".class"))
+                                .forEach(classNames::add);
+                    }
+                } else if ("jar".equals(root.getProtocol())) {
+                    JarURLConnection connection = (JarURLConnection) root.openConnection();
+                    // Без кэша: закрытие файла не должно затронуть jar, открытый загрузчиком классов
+                    connection.setUseCaches(false);
+                    try (JarFile jar = connection.getJarFile()) {
+                        for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements(); ) {
+                            String name = entries.nextElement().getName();
+                            if (name.startsWith(path) && name.endsWith(".class")) classNames.add(name);
+                        }
+                    }
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new IllegalStateException(format("Не удалось найти классы страниц в %s", path), e);
+        }
+        List<Class<?>> pages = new ArrayList<>();
+        for (String name : classNames) {
+            String className = name.substring(0, name.length() - ".class".length()).replace('/', '.');
+            try {
+                Class<?> type = Class.forName(className, false, loader);
+                if (base.isAssignableFrom(type)) pages.add(type);
+            } catch (ClassNotFoundException | LinkageError e) {
+                logger.warn("(locators) Класс {} не загружен: {}", className, e.toString());
+            }
+        }
+        return pages;
+    }
+
+    /**
+     * @return имена всех зарегистрированных локаторов
+     */
+    public static List<String> getNames() {
+        List<String> names = new ArrayList<>(locators.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    private static String key(Class<?> page, String name) {
+        return page.getSimpleName() + "." + name;
+    }
+}
@@ -0,0 +1,118 @@
+package pages;
+
+import com.codeborne.selenide.SelenideElement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * Параметризованный локатор вида "[id='%s']", разобранный на фрагменты один раз при создании.
+ * <p>
+ * Подстановка параметров склеивает готовые фрагменты без повторного разбора шаблона (как это делает String.format).
+ * Стратегия поиска определяется один раз, если её задаёт сам шаблон (xpath-шаблон с "//" остаётся xpath при любых
+ * значениях). В остальных случаях стратегию определяет и подставленное значение (например, шаблон "%s", в который
+ * передаётся xpath), поэтому она уточняется после подстановки.
+ */
+public final class LocatorTemplate {
+
+    private final String template;
+    private final String[] fragments;
+    private final Locator.Strategy strategy;
+    // Стратегия не зависит от подставляемых значений
+    private final boolean fixedStrategy;
+    private final int fixedLength;
+
+    private LocatorTemplate(String template, String[] fragments, Locator.Strategy strategy, boolean fixedStrategy) {
+        this.template = template;
+        this.fragments = fragments;
+        this.strategy = strategy;
+        this.fixedStrategy = fixedStrategy;
+        int length = 0;
+        for (String fragment : fragments) length += fragment.length();
+        this.fixedLength = length;
+    }
+
+    /**
+     * Компилирует шаблон. Поддерживаются подстановки %s и экранирование %%.
+     *
+     * @param template шаблон локатора
+     * @return скомпилированный шаблон
+     * @throws IllegalArgumentException если шаблон содержит другие подстановки или локатор некорректен
+     */
+    public static LocatorTemplate compile(String template) {
+        List<String> fragments = new ArrayList<>();
+        StringBuilder fragment = new StringBuilder();
+        for (int i = 0; i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (c != '%') {
+                fragment.append(c);
+            } else if (i + 1 < template.length() && template.charAt(i + 1) == '%') {
+                fragment.append('%');
+                i++;
+            } else if (i + 1 < template.length() && template.charAt(i + 1) == 's') {
+                fragments.add(fragment.toString());
+                fragment.setLength(0);
+                i++;
+            } else {
+                throw new IllegalArgumentException(format("В шаблоне локатора поддерживается только %%s: %s", template));
+            }
+        }
+        fragments.add(fragment.toString());
+        String[] compiled = fragments.toArray(new String[0]);
+
+        // Синтаксис проверяется на образце с подставленными значениями
+        StringBuilder sample = new StringBuilder(compiled[0]);
+        for (int i = 1; i < compiled.length; i++) sample.append('x').append(compiled[i]);
+        Locator.Strategy strategy = Locator.compile(sample.toString()).getStrategy();
+        return new LocatorTemplate(template, compiled, strategy,
+                strategy == Locator.Strategy.XPATH || compiled.length == 1);
+    }
+
+    /**
+     * Подставляет параметры в шаблон.
+     *
+     * @param args значения параметров (по одному на каждую подстановку %s)
+     * @return локатор с подставленными значениями
+     */
+    public Locator with(Object... args) {
+        if (args.length != fragments.length - 1)
+            throw new IllegalArgumentException(format("Шаблон [%s] ожидает %d параметров, передано %d",
+                    template, fragments.length - 1, args.length));
+        String[] values = new String[args.length];
+        int length = fixedLength;
+        for (int i = 0; i < args.length; i++) {
+            values[i] = String.valueOf(args[i]);
+            length += values[i].length();
+        }
+        StringBuilder locator = new StringBuilder(length).append(fragments[0]);
+        for (int i = 0; i < values.length; i++) locator.append(values[i]).append(fragments[i + 1]);
+        String value = locator.toString();
+
+        if (fixedStrategy) return Locator.withStrategy(value, strategy);
+        // Значение параметра может изменить стратегию: xpath вместо css, псевдоклассы Sizzle, кавычки в id-локаторе
+        // (непригоден для By.id). Локатор другой стратегии проверяется заново.
+        Locator.Strategy actual = Locator.detectStrategy(value);
+        return actual == strategy ? Locator.withStrategy(value, strategy) : Locator.compile(value);
+    }
+
+    /**
+     * Подставляет параметры в шаблон и возвращает элемент страницы.
+     */
+    public SelenideElement element(Object... args) {
+        return with(args).element();
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return стратегия поиска по шаблону; если стратегия зависит от значений, у локатора из {@link #with} она может
+     * отличаться
+     */
+    public Locator.Strategy getStrategy() {
+        return strategy;
+    }
+}
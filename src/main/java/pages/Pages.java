@@ -0,0 +1,103 @@
+package pages;
+
+import helpers.DateTimeHelper;
+import helpers.WaitHelper;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * Фабрика объектов страниц сценария.
+ * <p>
+ * Объекты страниц и общие для них хелперы (DateTimeHelper, WaitHelper) создаются один раз на сценарий и хранятся
+ * отдельно для каждого потока, поэтому параллельные сценарии не делят состояние хелперов. По окончании сценария
+ * необходимо вызвать {@link #clear()}.
+ * <pre>
+ * Pages.get(CommonPage.class).pressMainLogo();
+ * </pre>
+ */
+public final class Pages {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    private static final ThreadLocal<Pages> scenarios = ThreadLocal.withInitial(Pages::new);
+
+    // Конструкторы страниц (общие для всех потоков)
+    private static final ConcurrentHashMap<Class<?>, Constructor<?>> constructors = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, AbstractPage> pages = new HashMap<>();
+    private DateTimeHelper dateTimeHelper;
+    private WaitHelper waitHelper;
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    private Pages() {
+    }
+
+    /**
+     * Возвращает объект страницы текущего сценария (создаёт его при первом обращении).
+     *
+     * @param type класс страницы с конструктором без параметров
+     * @return объект страницы
+     */
+    public static <T extends AbstractPage> T get(Class<T> type) {
+        Pages scenario = scenarios.get();
+        AbstractPage page = scenario.pages.get(type);
+        if (page == null) {
+            page = newPage(type);
+            scenario.pages.put(type, page);
+        }
+        return type.cast(page);
+    }
+
+    /**
+     * Освобождает страницы и хелперы сценария текущего потока.
+     */
+    public static void clear() {
+        scenarios.remove();
+    }
+
+    /**
+     * @return DateTimeHelper сценария текущего потока
+     */
+    static DateTimeHelper dateTimeHelper() {
+        Pages scenario = scenarios.get();
+        if (scenario.dateTimeHelper == null) scenario.dateTimeHelper = new DateTimeHelper();
+        return scenario.dateTimeHelper;
+    }
+
+    /**
+     * @return WaitHelper сценария текущего потока
+     */
+    static WaitHelper waitHelper() {
+        Pages scenario = scenarios.get();
+        if (scenario.waitHelper == null) scenario.waitHelper = new WaitHelper();
+        return scenario.waitHelper;
+    }
+
+    private static AbstractPage newPage(Class<? extends AbstractPage> type) {
+        try {
+            Constructor<?> constructor = constructors.get(type);
+            if (constructor == null) {
+                constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                constructors.putIfAbsent(type, constructor);
+            }
+            return (AbstractPage) constructor.newInstance();
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(format("Ошибка создания страницы %s", type.getSimpleName()), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(format("Страница %s должна иметь конструктор без параметров",
+                    type.getSimpleName()), e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package pages;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Счётчики поиска элементов по локаторам {@link Locator} в текущем сценарии: нативный поиск браузера
+ * (id, css, xpath) и Sizzle.
+ * <p>
+ * Учитывается каждое обращение к браузеру за элементом (включая повторные поиски Selenide при ожидании), а не
+ * создание SelenideElement. Сценарий выполняется в одном потоке, поэтому счётчики ведутся отдельно для каждого
+ * потока и сбрасываются методом {@link #print()} в конце сценария.
+ */
+public final class SelectorStatistics {
+
+    public static final Logger logger = LoggerFactory.getLogger(SelectorStatistics.class);
+
+    private static final ThreadLocal<Counters> counters = ThreadLocal.withInitial(Counters::new);
+
+    private SelectorStatistics() {
+    }
+
+    static void lookup(Locator.Strategy strategy) {
+        Counters current = counters.get();
+        switch (strategy) {
+            case ID:
+                current.id++;
+                break;
+            case CSS:
+                current.css++;
+                break;
+            case XPATH:
+                current.xpath++;
+                break;
+            default:
+                current.sizzle++;
+        }
+    }
+
+    static void sizzleInjected() {
+        counters.get().sizzleInjections++;
+    }
+
+    /**
+     * Печатает количество поисков элементов по каждой стратегии в текущем сценарии и сбрасывает счётчики.
+     */
+    public static void print() {
+        Counters current = counters.get();
+        counters.remove();
+        logger.info(">>> (selectors) Поисков в сценарии: id - {}, css - {}, xpath - {}; Sizzle - {} (внедрений - {})",
+                current.id, current.css, current.xpath, current.sizzle, current.sizzleInjections);
+    }
+
+    private static final class Counters {
+        private long id;
+        private long css;
+        private long xpath;
+        private long sizzle;
+        private long sizzleInjections;
+    }
+}
@@ -0,0 +1,186 @@
+package helpers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+/**
+ * Сравнивает индекс {@link BusinessCalendar} с прежним подневным перебором на многолетних интервалах: через границы
+ * лет, через годы с файлом календаря и без него, с переносами рабочих дней на выходные.
+ */
+public class BusinessCalendarTest {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    // Праздники из прежней реализации DateTimeHelper.isDayOff
+    private static final String LEGACY_HOLIDAYS = "src/test/resources/calendars/legacy-holidays-2023.txt";
+
+    private static final List<Integer> SHIFTS = Arrays.asList(-400, -260, -31, -5, -1, 1, 2, 5, 31, 260, 400);
+    private static final List<Integer> SPANS = Arrays.asList(0, 1, 6, 7, 100, 366, 800);
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    /**
+     * Календарь из ресурсов: 2023 и 2024 годы с файлами, 2021, 2022, 2025 и 2026 - только суббота и воскресенье.
+     */
+    @Test
+    public void matchesDayByDayLoopOnResourceCalendars() {
+        HolidayCalendarSource source = new HolidayCalendarFiles("ru", null);
+        compare(source, LocalDate.of(2022, 1, 1), LocalDate.of(2025, 12, 31));
+    }
+
+    /**
+     * Календарь из внешнего каталога: праздники и перенос рабочего дня на стыке двух лет.
+     */
+    @Test
+    public void matchesDayByDayLoopOnExternalCalendarFiles() throws IOException {
+        Path directory = Files.createTempDirectory("calendars");
+        try {
+            Files.createDirectories(directory.resolve("test"));
+            Files.write(directory.resolve("test/2030.txt"), Arrays.asList(
+                    "# Праздники в конце года", "off 2030-12-30", "off 2030-12-31", "work 2030-12-28"),
+                    StandardCharsets.UTF_8);
+            Files.write(directory.resolve("test/2031.txt"), Arrays.asList(
+                    "off 2031-01-01", "off 2031-01-02", "off 2031-01-03", "work 2031-01-04", "off 2031-03-10"),
+                    StandardCharsets.UTF_8);
+            compare(new HolidayCalendarFiles("test", directory.toString()),
+                    LocalDate.of(2029, 11, 1), LocalDate.of(2032, 2, 28));
+        } finally {
+            for (String file : new String[]{"test/2030.txt", "test/2031.txt", "test"})
+                Files.deleteIfExists(directory.resolve(file));
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    /**
+     * Календарь 2023 года совпадает с прежним списком праздников, а сдвиг "N дней без выходных" - с прежними
+     * циклами plusDaysWithoutDayOff и minusDaysWithoutDayOff.
+     */
+    @Test
+    public void matchesLegacyHolidayList2023() throws IOException {
+        Set<LocalDate> legacy = new HashSet<>();
+        for (String line : Files.readAllLines(Paths.get(LEGACY_HOLIDAYS), StandardCharsets.UTF_8))
+            if (!line.trim().isEmpty() && !line.startsWith("#")) legacy.add(LocalDate.parse(line.trim()));
+        BusinessCalendar calendar = new BusinessCalendar(new HolidayCalendarFiles("ru", null));
+
+        for (LocalDate date = LocalDate.of(2023, 1, 1); date.getYear() == 2023; date = date.plusDays(1)) {
+            Assert.assertEquals(date.toString(), legacyIsDayOff(date, legacy), calendar.isDayOff(date));
+        }
+        // Прежний список знал только 2023 год - результат должен оставаться внутри года
+        for (LocalDate date = LocalDate.of(2023, 1, 15); date.isBefore(LocalDate.of(2023, 12, 1)); date = date.plusDays(1)) {
+            for (int days = 0; days <= 14; days++) {
+                LocalDate plus = date.plusDays(days);
+                while (legacyIsDayOff(plus, legacy)) plus = plus.plusDays(1);
+                Assert.assertEquals(format("%s + %d", date, days), plus, calendar.nextWorkingDay(date.plusDays(days)));
+
+                LocalDate minus = date.minusDays(days);
+                while (legacyIsDayOff(minus, legacy)) minus = minus.minusDays(1);
+                Assert.assertEquals(format("%s - %d", date, days), minus,
+                        calendar.previousWorkingDay(date.minusDays(days)));
+            }
+        }
+    }
+
+    /**
+     * Сравнивает все операции календаря с подневным перебором для каждой даты интервала.
+     */
+    private static void compare(HolidayCalendarSource source, LocalDate from, LocalDate to) {
+        BusinessCalendar calendar = new BusinessCalendar(source);
+        Reference reference = new Reference(source);
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            Assert.assertEquals(format("isDayOff(%s)", date), reference.isDayOff(date), calendar.isDayOff(date));
+            Assert.assertEquals(format("nextWorkingDay(%s)", date), reference.next(date), calendar.nextWorkingDay(date));
+            Assert.assertEquals(format("previousWorkingDay(%s)", date), reference.previous(date),
+                    calendar.previousWorkingDay(date));
+            Assert.assertEquals(format("plusWorkingDays(%s, 0)", date), reference.next(date),
+                    calendar.plusWorkingDays(date, 0));
+            for (int days : SHIFTS) {
+                Assert.assertEquals(format("plusWorkingDays(%s, %d)", date, days), reference.plus(date, days),
+                        calendar.plusWorkingDays(date, days));
+            }
+            for (int span : SPANS) {
+                LocalDate end = date.plusDays(span);
+                Assert.assertEquals(format("countWorkingDays(%s, %s)", date, end), reference.count(date, end),
+                        calendar.countWorkingDays(date, end));
+                Assert.assertEquals(format("countWorkingDays(%s, %s)", end, date), -reference.count(date, end),
+                        calendar.countWorkingDays(end, date));
+            }
+        }
+    }
+
+    private static boolean isWeekend(LocalDate date) {
+        return date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+
+    /**
+     * Прежняя проверка DateTimeHelper.isDayOff: суббота, воскресенье или дата из списка праздников.
+     */
+    private static boolean legacyIsDayOff(LocalDate date, Set<LocalDate> holidays) {
+        return isWeekend(date) || holidays.contains(date);
+    }
+
+    /**
+     * Подневный перебор по тем же данным календаря - эталон для сравнения.
+     */
+    private static final class Reference {
+        private final HolidayCalendarSource source;
+        private final Map<Integer, HolidayYear> years = new HashMap<>();
+
+        private Reference(HolidayCalendarSource source) {
+            this.source = source;
+        }
+
+        private boolean isDayOff(LocalDate date) {
+            // Год без календаря (null) тоже запоминается, чтобы не искать файл на каждую дату
+            if (!years.containsKey(date.getYear())) years.put(date.getYear(), source.load(date.getYear()));
+            HolidayYear year = years.get(date.getYear());
+            if (year == null) return isWeekend(date);
+            return year.getDaysOff().contains(date) || (isWeekend(date) && !year.getWorkingDays().contains(date));
+        }
+
+        private LocalDate next(LocalDate date) {
+            while (isDayOff(date)) date = date.plusDays(1);
+            return date;
+        }
+
+        private LocalDate previous(LocalDate date) {
+            while (isDayOff(date)) date = date.minusDays(1);
+            return date;
+        }
+
+        private LocalDate plus(LocalDate date, int days) {
+            int step = days > 0 ? 1 : -1;
+            for (int left = Math.abs(days); left > 0; ) {
+                date = date.plusDays(step);
+                if (!isDayOff(date)) left--;
+            }
+            return date;
+        }
+
+        private int count(LocalDate from, LocalDate to) {
+            int count = 0;
+            for (LocalDate date = from; date.isBefore(to); date = date.plusDays(1))
+                if (!isDayOff(date)) count++;
+            return count;
+        }
+    }
+}
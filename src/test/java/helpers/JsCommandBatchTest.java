@@ -0,0 +1,57 @@
+package helpers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static java.lang.String.format;
+
+/**
+ * Проверяет разбор локаторов {@link JsCommandBatch} при добавлении операций (без браузера): нативные css, xpath
+ * и id принимаются, селекторы Sizzle и некорректные локаторы отклоняются до отправки пакета.
+ */
+public class JsCommandBatchTest {
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    @Test
+    public void acceptsNativeLocators() {
+        JsCommandBatch batch = new JsCommandBatch()
+                .click("#submit")
+                .readText("[id='total']")
+                .readAttribute("div.card > a[href^='https:']", "href")
+                .count("//div[@class='row']")
+                .setValue("input[name='q']:not(:disabled)", "text")
+                .scrollIntoView("li:first-child")
+                .disableWindowsUploader();
+        Assert.assertEquals(7, batch.size());
+    }
+
+    @Test
+    public void rejectsSizzleOnlySelectors() {
+        for (String locator : Arrays.asList("div:contains('Итого')", "tr:eq(2) td", "button:visible", "li:first")) {
+            JsCommandBatch batch = new JsCommandBatch();
+            assertRejected(() -> batch.click(locator), "псевдоклассы Sizzle");
+            Assert.assertEquals(0, batch.size());
+        }
+    }
+
+    @Test
+    public void rejectsMalformedLocators() {
+        assertRejected(() -> new JsCommandBatch().readText("//div[@id='a'"), "Некорректный xpath-локатор");
+        assertRejected(() -> new JsCommandBatch().count("input[name='q'"), "Некорректный css-локатор");
+        assertRejected(() -> new JsCommandBatch().click(" "), "Пустой локатор");
+    }
+
+    private static void assertRejected(Runnable call, String message) {
+        try {
+            call.run();
+            Assert.fail(format("Ожидалась ошибка \"%s\"", message));
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+}
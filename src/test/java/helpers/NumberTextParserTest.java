@@ -0,0 +1,140 @@
+package helpers;
+
+import helpers.NumberTextParser.NumberLocale;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+import static helpers.NumberTextParser.NumberLocale.EN;
+import static helpers.NumberTextParser.NumberLocale.RU;
+
+/**
+ * Проверяет разбор чисел {@link NumberTextParser}: первое число текста с разделителями разрядов и десятичным
+ * разделителем локали, знак (в том числе U+2212 и минус перед символом валюты), значения длиннее 18 цифр
+ * и номер ячейки в ошибке разбора столбца.
+ */
+public class NumberTextParserTest {
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    @Test
+    public void takesFirstNumberWithRussianSeparators() {
+        assertParsed("1234.56", "1 234,56 ₽", RU);
+        assertParsed("12345.5", "12 345.5", RU);
+        assertParsed("1234567", "1 234 567", RU);
+        assertParsed("1234", "Итого: 1 234 руб. 50 коп.", RU);
+        assertParsed("42", "Заказ №42 от 01.02.2023", RU);
+    }
+
+    @Test
+    public void takesFirstNumberWithEnglishSeparators() {
+        assertParsed("1234.56", "$1,234.56", EN);
+        assertParsed("1234567.5", "1,234,567.5 USD", EN);
+        assertParsed("1234.5", "1'234.5", EN);
+        // Запятая в английской локали - разделитель разрядов, а не десятичный
+        assertParsed("12345", "12,345", EN);
+    }
+
+    @Test
+    public void decimalSeparatorCountsOnlyBetweenDigits() {
+        assertParsed("123", "123 руб.", RU);
+        assertParsed("5", "5.", RU);
+        assertParsed("5", "5, 6", RU);
+        assertParsed("12.5", "12.5 %", EN);
+        assertParsed("0.0012", "0,0012", RU);
+    }
+
+    @Test
+    public void readsSignBeforeNumberOrCurrency() {
+        assertParsed("-1234.5", "-1 234,5", RU);
+        assertParsed("-1234.5", "−1 234,5", RU);
+        assertParsed("-1234.5", "-$1,234.50", EN);
+        assertParsed("-15", "−₽15", RU);
+        assertParsed("7", "+7", RU);
+        // Минус, отделённый от числа текстом, не относится к числу
+        assertParsed("5", "- итого 5", RU);
+    }
+
+    @Test
+    public void keepsAllDigitsOfLongNumbersInDecimal() {
+        String text = "1234567890123456789012,5";
+        Assert.assertEquals(new BigDecimal("1234567890123456789012.5"), NumberTextParser.parseDecimal(text, RU));
+        Assert.assertEquals(1234567890123456789012.5, NumberTextParser.parseDouble(text, RU), 0);
+        Assert.assertEquals(new BigDecimal("-12345678901234567890"),
+                NumberTextParser.parseDecimal("-12 345 678 901 234 567 890", RU));
+        Assert.assertEquals(new BigDecimal("0.1234567890123456789012"),
+                NumberTextParser.parseDecimal("0.1234567890123456789012", EN));
+    }
+
+    @Test
+    public void matchesDoubleParseDouble() {
+        Random random = new Random(20231018);
+        for (int i = 0; i < 100000; i++) {
+            // Дробная часть от 1 до 9 знаков, в том числе с ведущими нулями
+            String fraction = String.format("%09d", random.nextInt(1_000_000_000)).substring(random.nextInt(9));
+            String number = random.nextInt(1_000_000_000) + "." + fraction;
+            Assert.assertEquals(number, Double.parseDouble(number), NumberTextParser.parseDouble(number, EN), 0);
+        }
+    }
+
+    @Test
+    public void rejectsTextWithoutNumberOrWithSeveralDecimalSeparators() {
+        assertRejected("нет данных", RU, "нет числа");
+        assertRejected("", RU, "нет числа");
+        assertRejected("1,2,3", RU, "Несколько десятичных разделителей");
+        char[] digits = new char[400];
+        Arrays.fill(digits, '9');
+        assertRejected(new String(digits), RU, "не помещается в double");
+    }
+
+    @Test
+    public void reportsCellIndexInBulkParsing() {
+        Assert.assertArrayEquals(new double[]{1.5, -2, 3000},
+                NumberTextParser.parseDoubles(Arrays.asList("1,5", "-2", "3 000 ₽"), RU), 0);
+        Assert.assertArrayEquals(new BigDecimal[]{new BigDecimal("1.5"), new BigDecimal("1234.56")},
+                NumberTextParser.parseDecimals(Arrays.asList("1.5", "1,234.56"), EN));
+        try {
+            NumberTextParser.parseDoubles(Arrays.asList("1", "2", "—", "4"), RU);
+            Assert.fail("Ожидалась ошибка разбора ячейки");
+        } catch (NumberFormatException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Ячейка 2: "));
+        }
+        try {
+            NumberTextParser.parseDecimals(Arrays.asList("", "2"), RU);
+            Assert.fail("Ожидалась ошибка разбора ячейки");
+        } catch (NumberFormatException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Ячейка 0: "));
+        }
+    }
+
+    @Test
+    public void gluesAllDigitsForTextViews() {
+        Assert.assertEquals(123, NumberTextParser.parseAllDigitsAsInt("1 2-3 шт."));
+        Assert.assertEquals("1,234.5", NumberTextParser.keepDigitsAndSeparators("$ 1,234.5 USD"));
+        try {
+            NumberTextParser.parseAllDigitsAsInt("99999999999");
+            Assert.fail("Ожидалось переполнение int");
+        } catch (NumberFormatException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("не помещается в int"));
+        }
+    }
+
+    private static void assertParsed(String expected, String text, NumberLocale locale) {
+        Assert.assertEquals(text, 0, new BigDecimal(expected).compareTo(NumberTextParser.parseDecimal(text, locale)));
+        Assert.assertEquals(text, Double.parseDouble(expected), NumberTextParser.parseDouble(text, locale), 0);
+    }
+
+    private static void assertRejected(String text, NumberLocale locale, String message) {
+        try {
+            NumberTextParser.parseDouble(text, locale);
+            Assert.fail("Ожидалась ошибка разбора: " + text);
+        } catch (NumberFormatException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package helpers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Проверяет {@link TraceRingBuffer}: порядок выгрузки, учёт перезаписанных записей и то, что читатель, работающий
+ * одновременно с писателями, получает только полностью заполненные записи.
+ */
+public class TraceRingBufferTest {
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    @Test
+    public void pollsInOrderAndCountsOverwrittenEvents() {
+        TraceRingBuffer buffer = new TraceRingBuffer(4);
+        Assert.assertNull(buffer.poll());
+        for (int i = 0; i < 3; i++) buffer.add("c" + i, null, i, 1, null);
+        Assert.assertEquals("c0", buffer.poll().name);
+
+        // Ёмкость 4: из записей c1..c8 до выгрузки доживают только четыре последние
+        for (int i = 3; i < 9; i++) buffer.add("c" + i, null, i, 1, null);
+        List<String> names = new ArrayList<>();
+        TraceRingBuffer.Event event;
+        while ((event = buffer.poll()) != null) names.add(event.name);
+        Assert.assertEquals(4, buffer.getLost());
+        Assert.assertEquals("[c5, c6, c7, c8]", names.toString());
+    }
+
+    /**
+     * Все поля записи производны от одного числа: несогласованная запись означает, что читатель увидел ячейку
+     * до того, как писатель её заполнил.
+     */
+    @Test
+    public void readerSeesOnlyCompleteEvents() throws InterruptedException {
+        TraceRingBuffer buffer = new TraceRingBuffer(64);
+        int writers = 4;
+        int perWriter = 200000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int offset = w * perWriter;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = offset; i < offset + perWriter; i++)
+                    buffer.add(String.valueOf(i), "#" + i, i, 2L * i, i % 2 == 0 ? null : "E" + i);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        long read = 0;
+        while (threads.stream().anyMatch(Thread::isAlive) || read + buffer.getLost() < (long) writers * perWriter) {
+            TraceRingBuffer.Event event = buffer.poll();
+            if (event == null) continue;
+            read++;
+            long value = Long.parseLong(event.name);
+            Assert.assertEquals("#" + value, event.detail);
+            Assert.assertEquals(value, event.startMicros);
+            Assert.assertEquals(2 * value, event.durationMicros);
+            Assert.assertEquals(value % 2 == 0 ? null : "E" + value, event.error);
+        }
+        for (Thread thread : threads) thread.join();
+        Assert.assertEquals((long) writers * perWriter, read + buffer.getLost());
+    }
+}
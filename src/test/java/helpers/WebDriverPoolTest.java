@@ -0,0 +1,59 @@
+package helpers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Проверяет сбор источников, данные которых {@link WebDriverPool} удаляет при очистке сеанса: команда CDP
+ * Storage.clearDataForOrigin принимает только конкретный источник, поэтому каждый адрес сводится к схеме, хосту
+ * и порту, а адреса без источника (about:, data:) пропускаются.
+ */
+public class WebDriverPoolTest {
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    @Test
+    public void originOfKeepsSchemeHostAndPort() {
+        Assert.assertEquals("https://example.com", WebDriverPool.originOf("https://Example.com/path?q=1#top"));
+        Assert.assertEquals("http://localhost:8080", WebDriverPool.originOf("http://localhost:8080/app/"));
+        Assert.assertEquals("https://sub.example.com:8443",
+                WebDriverPool.originOf("HTTPS://sub.example.com:8443/a/b"));
+    }
+
+    @Test
+    public void originOfSkipsAddressesWithoutOrigin() {
+        Assert.assertNull(WebDriverPool.originOf("about:blank"));
+        Assert.assertNull(WebDriverPool.originOf("data:text/html,<p>"));
+        Assert.assertNull(WebDriverPool.originOf("chrome://settings/"));
+        Assert.assertNull(WebDriverPool.originOf("file:///tmp/page.html"));
+        Assert.assertNull(WebDriverPool.originOf("not a url"));
+    }
+
+    @Test
+    public void collectsOriginsOfNestedFrames() {
+        Map<String, Object> tree = frame("https://app.example.com/main",
+                frame("https://widgets.example.org/frame", frame("about:blank")),
+                frame("https://app.example.com/other"));
+        Set<String> origins = new LinkedHashSet<>();
+        WebDriverPool.collectFrameOrigins(tree, origins);
+        Assert.assertEquals(new LinkedHashSet<>(Arrays.asList(
+                "https://app.example.com", "https://widgets.example.org")), origins);
+    }
+
+    @SafeVarargs
+    private static Map<String, Object> frame(String url, Map<String, Object>... children) {
+        Map<String, Object> node = new HashMap<>();
+        node.put("frame", Collections.singletonMap("url", url));
+        if (children.length > 0) node.put("childFrames", Arrays.asList(children));
+        return node;
+    }
+}
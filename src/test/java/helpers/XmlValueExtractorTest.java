@@ -0,0 +1,161 @@
+package helpers;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.CharacterData;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Сравнивает {@link XmlValueExtractor} с прежним поиском через DOM в AbstractHelper.getValueFromXML
+ * (getElementsByTagName и первый дочерний узел) и проверяет то, чего прежний поиск не умел: пути, абсолютные пути,
+ * имена без префикса для элементов с префиксом и несколько элементов за один разбор.
+ */
+public class XmlValueExtractorTest {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    private static final String ORDER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<order id=\"1\">\n"
+            + "  <number>A-100</number>\n"
+            + "  <customer><name>Иванов</name><phone/></customer>\n"
+            + "  <items>\n"
+            + "    <item><id>1</id><name>Книга</name><price>10.50</price></item>\n"
+            + "    <item><id>2</id><name>Ручка</name><price></price></item>\n"
+            + "  </items>\n"
+            + "  <comment>Доставка &amp; упаковка</comment>\n"
+            + "  <note>до<b>жирный</b>после</note>\n"
+            + "  <total>10.50</total>\n"
+            + "</order>";
+
+    private static final String SOAP = "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\""
+            + " xmlns:ns=\"urn:bank\" xmlns=\"urn:default\">"
+            + "<soap:Header><ns:requestId>r-1</ns:requestId></soap:Header>"
+            + "<soap:Body><ns:response><ns:status>OK</ns:status><ns:amount>99</ns:amount>"
+            + "<amount>1</amount><ns:empty/><code xmlns=\"urn:other\">7</code></ns:response></soap:Body>"
+            + "</soap:Envelope>";
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    /**
+     * Имена без префикса в документе без префиксов, полные имена с префиксом, вложенные, пустые элементы и элементы
+     * с дочерними элементами дают тот же результат, что и прежний поиск через DOM.
+     */
+    @Test
+    public void matchesLegacyDomLookup() throws Exception {
+        for (String name : Arrays.asList("order", "number", "customer", "name", "phone", "items", "item", "id",
+                "price", "comment", "note", "b", "total")) {
+            Assert.assertEquals(name, legacyValue(name, ORDER), XmlValueExtractor.value(ORDER, name));
+        }
+        for (String name : Arrays.asList("soap:Envelope", "soap:Header", "ns:requestId", "soap:Body", "ns:response",
+                "ns:status", "ns:amount", "ns:empty", "code")) {
+            Assert.assertEquals(name, legacyValue(name, SOAP), XmlValueExtractor.value(SOAP, name));
+        }
+        // Отличие от DOM: имя без префикса совпадает и с элементом с префиксом, поэтому находится ns:amount
+        Assert.assertEquals("1", legacyValue("amount", SOAP));
+        Assert.assertEquals("99", XmlValueExtractor.value(SOAP, "amount"));
+    }
+
+    /**
+     * Несколько элементов за один разбор дают те же значения, что и поиск по одному: после чтения текста элемента
+     * парсер уже стоит на следующем событии (дочернем элементе или конце элемента), и оно не должно теряться.
+     */
+    @Test
+    public void readsSeveralElementsInOnePass() throws Exception {
+        String[] names = {"order", "number", "customer", "name", "phone", "items", "item", "id", "price", "note", "b",
+                "total"};
+        Map<String, String> expected = new LinkedHashMap<>();
+        for (String name : names) expected.put(name, legacyValue(name, ORDER));
+        Assert.assertEquals(expected, XmlValueExtractor.values(ORDER, names));
+        Assert.assertEquals(expected, XmlValueExtractor.values(
+                new ByteArrayInputStream(ORDER.getBytes(StandardCharsets.UTF_8)), names));
+
+        // Вложенный элемент сразу за родителем и соседний элемент сразу за концом найденного
+        Map<String, String> values = XmlValueExtractor.values("<r><a>1<b>2</b></a><c>3</c></r>", "a", "b", "c");
+        Assert.assertEquals("{a=1, b=2, c=3}", values.toString());
+    }
+
+    @Test
+    public void matchesPaths() {
+        Assert.assertEquals("Иванов", XmlValueExtractor.value(ORDER, "customer/name"));
+        Assert.assertEquals("Книга", XmlValueExtractor.value(ORDER, "item/name"));
+        Assert.assertEquals("1", XmlValueExtractor.value(ORDER, "items/item/id"));
+        Assert.assertEquals("?", XmlValueExtractor.value(ORDER, "customer/phone"));
+        Assert.assertEquals("10.50", XmlValueExtractor.value(ORDER, "/order/total"));
+        // Абсолютный путь совпадает только на своей глубине
+        Assert.assertFalse(XmlValueExtractor.values(ORDER, "/order/name", "/name").containsKey("/order/name"));
+        Assert.assertTrue(XmlValueExtractor.values(ORDER, "/items/item/id").isEmpty());
+        // Путь и имя в одном разборе: стек пути не сбивается после чтения текста
+        Assert.assertEquals("{number=A-100, /order/total=10.50, items/item/price=10.50}",
+                XmlValueExtractor.values(ORDER, "number", "/order/total", "items/item/price").toString());
+        Assert.assertEquals("{/r/a=1, /r/c=3}",
+                XmlValueExtractor.values("<r><a>1<b>2</b></a><c>3</c></r>", "/r/a", "/r/c").toString());
+    }
+
+    @Test
+    public void matchesPrefixes() {
+        // Полное имя совпадает только с тем же префиксом; имя без префикса - с любым префиксом
+        Assert.assertEquals("99", XmlValueExtractor.value(SOAP, "ns:amount"));
+        Assert.assertEquals("OK", XmlValueExtractor.value(SOAP, "status"));
+        Assert.assertEquals("r-1", XmlValueExtractor.value(SOAP, "Header/requestId"));
+        Assert.assertEquals("OK", XmlValueExtractor.value(SOAP, "soap:Body/ns:response/ns:status"));
+        Assert.assertEquals("7", XmlValueExtractor.value(SOAP, "/soap:Envelope/soap:Body/ns:response/code"));
+        Assert.assertTrue(XmlValueExtractor.values(SOAP, "other:status", "soap:status").isEmpty());
+    }
+
+    @Test
+    public void concatenatesTextUntilFirstChildElement() {
+        Assert.assertEquals("ab", XmlValueExtractor.value("<r><v>a<![CDATA[b]]></v></r>", "v"));
+        Assert.assertEquals("<x>", XmlValueExtractor.value("<r><v><![CDATA[<x>]]><c/>tail</v></r>", "v"));
+        Assert.assertEquals("text", XmlValueExtractor.value("<r><v><!-- комментарий -->text</v></r>", "v"));
+    }
+
+    @Test
+    public void rejectsMalformedXmlAndPaths() {
+        assertRejected(() -> XmlValueExtractor.value("<r><a>1</a></r>", "b"), "нет элемента <b>");
+        assertRejected(() -> XmlValueExtractor.values("<r><a>1</r>", "b"), "Некорректный XML");
+        assertRejected(() -> XmlValueExtractor.values("<r/>", "a//b"), "Некорректный путь элемента");
+        assertRejected(() -> XmlValueExtractor.values("<r/>", "a/"), "Некорректный путь элемента");
+        // Внешние сущности не загружаются
+        String xxe = "<!DOCTYPE r [<!ENTITY x SYSTEM \"file:///etc/hostname\">]><r><a>&x;</a></r>";
+        try {
+            Assert.assertEquals("", XmlValueExtractor.values(xxe, "a").getOrDefault("a", "").trim());
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Некорректный XML"));
+        }
+    }
+
+    /**
+     * Прежняя реализация AbstractHelper.getValueFromXML.
+     */
+    private static String legacyValue(String name, String xml) throws Exception {
+        Element element = (Element) DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new InputSource(new StringReader(xml))).getElementsByTagName(name).item(0);
+        Node child = element.getFirstChild();
+        return child instanceof CharacterData ? ((CharacterData) child).getData() : "?";
+    }
+
+    private static void assertRejected(Runnable call, String message) {
+        try {
+            call.run();
+            Assert.fail(format("Ожидалась ошибка \"%s\"", message));
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package helpers;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Проверяет {@link ZipContentVerifier} на архивах, собранных во временном каталоге: поиск текста на границе
+ * буферов чтения, CRC32 и размеры записей, наличие записей по имени и шаблону, значения XML внутри записи.
+ */
+public class ZipContentVerifierTest {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    private static final Charset WINDOWS_1251 = Charset.forName("windows-1251");
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    @Test
+    public void findsTextAcrossBufferBoundary() throws IOException {
+        // Искомый текст начинается за 3 байта до конца первого буфера; "Итого" в UTF-8 занимает 10 байт
+        byte[] text = bytesWithMarker(ZipContentVerifier.BUFFER_SIZE - 3, "Итого: 100", StandardCharsets.UTF_8);
+        byte[] repeated = bytesWithMarker(2 * ZipContentVerifier.BUFFER_SIZE - 2, "aaab", StandardCharsets.UTF_8);
+        byte[] cp1251 = bytesWithMarker(ZipContentVerifier.BUFFER_SIZE - 1, "Сумма", WINDOWS_1251);
+        for (boolean stored : new boolean[]{true, false}) {
+            Path archive = zip(stored, "report.txt", text, "log.txt", repeated, "win.txt", cp1251);
+            ZipContentVerifier.of(archive)
+                    .containsText("report.txt", "Итого: 100")
+                    .containsText("log.txt", "aaab")
+                    .containsText("win.txt", "Сумма", WINDOWS_1251)
+                    .verify();
+            assertFailures(ZipContentVerifier.of(archive)
+                            .containsText("report.txt", "Итого: 200")
+                            .containsText("win.txt", "Сумма"),
+                    "report.txt: не найден текст \"Итого: 200\"", "win.txt: не найден текст \"Сумма\"");
+        }
+    }
+
+    @Test
+    public void reportsCorruptedEntryData() throws IOException {
+        byte[] data = bytesWithMarker(1000, "MARKER", StandardCharsets.US_ASCII);
+        Path archive = zip(true, "data.bin", data, "other.txt", "без изменений".getBytes(StandardCharsets.UTF_8));
+        ZipContentVerifier.of(archive).verifyCrc().entrySize("data.bin", data.length).verify();
+
+        // Запись хранится без сжатия: меняем байт данных, CRC32 в оглавлении остаётся прежним
+        byte[] bytes = Files.readAllBytes(archive);
+        bytes[indexOf(bytes, "MARKER".getBytes(StandardCharsets.US_ASCII))] = 'X';
+        Files.write(archive, bytes);
+        byte[] corrupted = data.clone();
+        corrupted[indexOf(corrupted, "MARKER".getBytes(StandardCharsets.US_ASCII))] = 'X';
+
+        assertFailures(ZipContentVerifier.of(archive).verifyCrc(),
+                String.format("data.bin: CRC32 %08x, в оглавлении %08x", crcOf(corrupted), crcOf(data)));
+        // Без verifyCrc записи без проверок содержимого не читаются
+        ZipContentVerifier.of(archive).hasEntry("data.bin").verify();
+    }
+
+    @Test
+    public void reportsMissingEntriesAndSize() throws IOException {
+        Path archive = zip(false, "a.txt", "abc".getBytes(StandardCharsets.UTF_8));
+        assertFailures(ZipContentVerifier.of(archive)
+                        .hasEntry("a.txt")
+                        .hasEntry("missing.txt")
+                        .containsText("absent.txt", "x")
+                        .entrySize("a.txt", 4)
+                        .entryCount(2),
+                "нет записи missing.txt", "нет записи absent.txt", "a.txt: размер 3 байт, ожидалось 4",
+                "файлов в архиве 1, ожидалось 2");
+    }
+
+    @Test
+    public void matchesEntriesByGlob() throws IOException {
+        byte[] empty = new byte[0];
+        Path archive = zip(false, "docs/a.pdf", empty, "docs/sub/b.pdf", empty, "readme.txt", empty);
+        ZipContentVerifier.of(archive)
+                .hasEntryMatching("docs/*.pdf")
+                .hasEntryMatching("docs/**/*.pdf")
+                .hasEntryMatching("*.{txt,md}")
+                .entryCount(3)
+                .verify();
+        // "*" не переходит границу каталога
+        assertFailures(ZipContentVerifier.of(archive).hasEntryMatching("docs/*.doc").hasEntryMatching("sub/*.pdf"),
+                "нет записей по шаблону docs/*.doc", "нет записей по шаблону sub/*.pdf");
+    }
+
+    @Test
+    public void readsXmlValuesInsideEntry() throws IOException {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<ns:report xmlns:ns=\"urn:r\"><ns:Amount> 100.00 </ns:Amount>"
+                + "<Items><Item><Id>1</Id></Item></Items><Title>Отчёт</Title></ns:report>";
+        Path archive = zip(false, "report.xml", xml.getBytes(StandardCharsets.UTF_8),
+                "broken.xml", "<a><b></a>".getBytes(StandardCharsets.UTF_8));
+        ZipContentVerifier.of(archive)
+                .xmlValue("report.xml", "Amount", "100.00")
+                .xmlValue("report.xml", "Items/Item/Id", "1")
+                .xmlValue("report.xml", "Items", XmlValueExtractor.NO_TEXT)
+                .xmlValue("report.xml", "Title", "Отчёт")
+                .containsText("report.xml", "Отчёт")
+                .verifyCrc()
+                .verify();
+        AssertionError error = failure(ZipContentVerifier.of(archive)
+                .xmlValue("report.xml", "Amount", "200.00")
+                .xmlValue("report.xml", "Missing", "x")
+                .xmlValue("broken.xml", "b", "x"));
+        assertContains(error, "report.xml: <Amount> = \"100.00\", ожидалось \"200.00\"",
+                "report.xml: нет элемента <Missing>", "broken.xml: Некорректный XML");
+    }
+
+    /**
+     * Собирает архив из пар имя - содержимое.
+     *
+     * @param stored true - записи без сжатия (STORED), false - со сжатием (DEFLATED)
+     */
+    private Path zip(boolean stored, Object... entries) throws IOException {
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        for (int i = 0; i < entries.length; i += 2) contents.put((String) entries[i], (byte[]) entries[i + 1]);
+        Path archive = folder.newFile().toPath();
+        try (OutputStream out = Files.newOutputStream(archive); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, byte[]> content : contents.entrySet()) {
+                ZipEntry entry = new ZipEntry(content.getKey());
+                if (stored) {
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(content.getValue().length);
+                    entry.setCrc(crcOf(content.getValue()));
+                }
+                zip.putNextEntry(entry);
+                zip.write(content.getValue());
+                zip.closeEntry();
+            }
+        }
+        return archive;
+    }
+
+    /**
+     * @return заполнитель длиной offset байт, за которым следуют текст и ещё один буфер заполнителя
+     */
+    private static byte[] bytesWithMarker(int offset, String marker, Charset charset) {
+        byte[] text = marker.getBytes(charset);
+        byte[] data = new byte[offset + text.length + ZipContentVerifier.BUFFER_SIZE];
+        for (int i = 0; i < data.length; i++) data[i] = (byte) ('a' + i % 2);
+        System.arraycopy(text, 0, data, offset, text.length);
+        return data;
+    }
+
+    private static long crcOf(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return crc.getValue();
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern) {
+        for (int i = 0; i + pattern.length <= data.length; i++)
+            if (Arrays.equals(Arrays.copyOfRange(data, i, i + pattern.length), pattern)) return i;
+        throw new AssertionError("Нет последовательности байт в данных");
+    }
+
+    private static AssertionError failure(ZipContentVerifier verifier) {
+        try {
+            verifier.verify();
+        } catch (AssertionError e) {
+            return e;
+        }
+        throw new AssertionError("Ожидалась ошибка проверки архива");
+    }
+
+    private static void assertFailures(ZipContentVerifier verifier, String... failures) {
+        AssertionError error = failure(verifier);
+        assertContains(error, failures);
+        Assert.assertEquals(error.getMessage(), failures.length, error.getMessage().split("\n  - ").length - 1);
+    }
+
+    private static void assertContains(AssertionError error, String... failures) {
+        for (String failure : failures)
+            Assert.assertTrue(error.getMessage(), error.getMessage().contains("\n  - " + failure));
+    }
+}
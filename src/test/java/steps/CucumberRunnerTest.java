@@ -1,6 +1,5 @@
 package steps;
 
-import io.cucumber.junit.Cucumber;
 import io.cucumber.junit.CucumberOptions;
 import org.junit.runner.RunWith;
 
@@ -8,11 +7,12 @@ import org.junit.runner.RunWith;
  * Обеспечивает запуск тестов в Cucumber с указанными опциями (см. аннотацию @CucumberOptions).
  * Created by Vladimir V. Klochkov on 20.04.2016.
  */
-@RunWith(Cucumber.class)
+@RunWith(DurationOrderedCucumber.class)
 @CucumberOptions(
         plugin = {
                 "json:target/cucumber.json",
-                "pretty", "html:target/site/cucumber-pretty", "json:target/cucumber.json"
+                "pretty", "html:target/site/cucumber-pretty", "json:target/cucumber.json",
+                "steps.PerformanceReportPlugin"
         },
         features = "src/test/resources/features",
         tags = "~@ignore"
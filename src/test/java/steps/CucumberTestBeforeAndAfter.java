@@ -1,14 +1,18 @@
 package steps;
 
+import aspects.MethodTimings;
 import com.codeborne.selenide.WebDriverRunner;
 import com.codeborne.selenide.junit5.BrowserStrategyExtension;
 import io.cucumber.java.After;
 import io.cucumber.java.Before;
 import io.cucumber.java.Scenario;
 import helpers.ConfigContainer;
+import helpers.ScenarioLogBuffer;
+import helpers.TempFolderCleaner;
 import helpers.WebDriverContainer;
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
+import helpers.WebDriverPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.junit.ClassRule;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
@@ -17,18 +21,25 @@ import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.logging.LogEntries;
 import org.openqa.selenium.logging.LogEntry;
 import org.openqa.selenium.logging.LogType;
+import pages.AbstractPage;
 import pages.CommonPage;
+import pages.LocatorRegistry;
+import pages.Pages;
+import pages.SelectorStatistics;
 
 import javax.imageio.ImageIO;
 import java.io.File;
-import java.io.IOException;
 import java.net.InetAddress;
+import java.util.concurrent.Callable;
 
 import static com.codeborne.selenide.Selenide.sleep;
 import static java.lang.String.format;
 
 public class CucumberTestBeforeAndAfter {
-    public static final Logger logger = LogManager.getLogger(WebDriverContainer.class);
+    public static final Logger logger = LoggerFactory.getLogger(WebDriverContainer.class);
+
+    // Уничтожение зависших процессов chromedriver.exe выполняется один раз в этой JVM
+    private static final OncePerJvm staleDriversKill = new OncePerJvm();
     /******************************************************************************************************************
      *
      *                                          Методы класса
@@ -45,70 +56,128 @@ public class CucumberTestBeforeAndAfter {
      * Код, который выполняется до каждого сценария.
      */
     @Before
-    public void setUp() throws IOException, InterruptedException {
-
-            logger.info(">>> (beforeTest) Уничтожает все существующие процессы chromedriver.exe");
-            Runtime.getRuntime().exec("cmd /c taskkill /IM chromedriver.exe /F");
+    public void setUp(Scenario scenario) throws Exception {
+        // Замеры методов страниц и хелперов (при запуске с javaagent aspectjweaver)
+        String scenarioName = format("%s (%s:%d)", scenario.getName(), scenario.getUri(), scenario.getLine());
+        MethodTimings.start(scenarioName);
+        // Подробный лог сценария копится в буфере и выводится только при падении
+        ScenarioLogBuffer.start(scenarioName);
+        killStaleChromeDrivers();
+        // Локаторы страниц проверяются один раз при старте прогона (DurationOrderedCucumber)
+        LocatorRegistry.validatePages(AbstractPage.class);
         logger.info(">>> (beforeTest) Устанавливает настройки тестовой среды из файла [config.properties]");
         ConfigContainer.getInstance().loadConfig().generatePathToTempFolder();
+        TempFolderCleaner.sweepOrphans();
 
         // region Выводим дополнительную информацию о компьютере, на котором выполняются тесты
 
-        logger.info(">>> (beforeTest) Computer name is : " + InetAddress.getLocalHost().getHostName());
-        logger.info(">>> (beforeTest) IP address is    : " + InetAddress.getLocalHost().getHostAddress());
-        logger.info(">>> (beforeTest) OS name is       : " + System.getProperty("os.name"));
-        logger.info(">>> (beforeTest) OS version is    : " + System.getProperty("os.version"));
-        logger.info(">>> (beforeTest) User logged in as: " + System.getProperty("user.name"));
+        if (logger.isInfoEnabled()) {
+            InetAddress host = InetAddress.getLocalHost();
+            logger.info(">>> (beforeTest) Computer name is : {}", host.getHostName());
+            logger.info(">>> (beforeTest) IP address is    : {}", host.getHostAddress());
+            logger.info(">>> (beforeTest) OS name is       : {}", System.getProperty("os.name"));
+            logger.info(">>> (beforeTest) OS version is    : {}", System.getProperty("os.version"));
+            logger.info(">>> (beforeTest) User logged in as: {}", System.getProperty("user.name"));
+        }
 
         // endregion
 
         // Инициализируем статический экземпляр WebDriver
-        WebDriverContainer.getInstance().setWebDriver();
-        new CommonPage().toMainPage();
+        WebDriverContainer.getInstance().setWebDriver(scenarioName);
+        Pages.get(CommonPage.class).toMainPage();
     }
 
     /**
-     * Код, который выполняется после каждого сценария.
+     * Код, который выполняется после каждого сценария. Освобождение браузера и состояния потока выполняется,
+     * даже если сбор сведений о сценарии завершился ошибкой.
      */
     @After
     public void tearDown(Scenario scenario) throws Exception {
-        // Получаем текущий экземпляр WebDriver
-        WebDriver driver = WebDriverContainer.getInstance().getWebDriver();
+        try {
+            // Получаем текущий экземпляр WebDriver
+            WebDriver driver = WebDriverContainer.getInstance().getWebDriver();
 
-        // Делаем скриншот в случае аварийного завершения теста
-        if (scenario.isFailed()) {
+            // Делаем скриншот в случае аварийного завершения теста
+            if (scenario.isFailed()) {
+                try {
+                    scenario.attach(WebDriverRunner.getWebDriver().getCurrentUrl(), "URL","Current Page URL");
+                    byte[] screenshot = ((TakesScreenshot) WebDriverRunner.getWebDriver())
+                            .getScreenshotAs(OutputType.BYTES);
+                    scenario.attach(screenshot, "image/png","screenshot");
+                    scenario.attach(ConfigContainer.getInstance().getContext().snapshot().toString(), "text/plain",
+                            "parameters");
+                    new File("target/site").mkdir();
+                } catch (WebDriverException somePlatformsNotSupportScreenshots) {
+                    logger.error(somePlatformsNotSupportScreenshots.getMessage());
+                }
+            }
+
+            // Печатаем ошибки, которые выводятся в консоли браузера
+            printErrorsFromBrowserConsole(driver);
+//            printPathsOfRequestsWithErrorsFromNetwork(driver);
+        } finally {
             try {
-                scenario.attach(WebDriverRunner.getWebDriver().getCurrentUrl(), "URL","Current Page URL");
-                byte[] screenshot = ((TakesScreenshot) WebDriverRunner.getWebDriver())
-                        .getScreenshotAs(OutputType.BYTES);
-                scenario.attach(screenshot, "image/png","screenshot");
-                new File("target/site").mkdir();
+                releaseScenarioResources();
+            } finally {
+                ConfigContainer.removeInstance();
+                Pages.clear();
+                SelectorStatistics.print();
                 try {
-                    String pathToDeleteFolder = ConfigContainer.getInstance().loadConfig().getPathToTempFolderWithRandomName();
-                    logger.info(">>> (afterTest) Попытка удаления временной папки: " + pathToDeleteFolder);
-                    File folderToDelete = new File(pathToDeleteFolder);
-                    folderToDelete.delete();
-                    logger.info(">>> (afterTest) Временная папка удалена");
-                } catch (Exception e) {
-                    logger.info(">>> (afterTest) Попытка удаления временной папки провалена: " + e);
+                    MethodTimings.finish(scenario.getStatus().name());
+                } finally {
+                    ScenarioLogBuffer.finish(scenario.isFailed());
                 }
-            } catch (WebDriverException somePlatformsNotSupportScreenshots) {
-                logger.error(somePlatformsNotSupportScreenshots.getMessage());
             }
         }
+    }
 
-        // Печатаем ошибки, которые выводятся в консоли браузера
-        printErrorsFromBrowserConsole(driver);
-//        printPathsOfRequestsWithErrorsFromNetwork(driver);
-
+    /**
+     * Завершает сеанс браузера, ставит временную папку сценария в очередь на удаление и выводит статистику.
+     */
+    private static void releaseScenarioResources() {
         logger.info(">>> (afterTest) Завершение сеанса");
-        driver.quit();
+        boolean returnedToPool = WebDriverContainer.getInstance().releaseWebDriver();
+
+        // Временная папка сценария удаляется в фоне (браузер уже не держит файлы загрузок)
+        String pathToDeleteFolder = ConfigContainer.getInstance().getPathToTempFolderWithRandomName();
+        logger.info(">>> (afterTest) Временная папка поставлена в очередь на удаление: {}", pathToDeleteFolder);
+        TempFolderCleaner.schedule(pathToDeleteFolder);
 
         // Печатаем список использованных в текущем тесте параметров
         ConfigContainer.getInstance().printParameters();
 
-        // Пауза для успешного завершения
-        sleep(6000);
+        if (returnedToPool) {
+            WebDriverPool.getInstance().printStatistics();
+        } else {
+            // Пауза для успешного завершения
+            sleep(6000);
+        }
+    }
+
+    /**
+     * Уничтожает все существующие процессы chromedriver.exe, оставшиеся от предыдущих запусков.
+     * Выполняется один раз на JVM: при параллельном запуске сценариев повторный вызов убил бы драйверы соседних
+     * сценариев. Остальные потоки ждут завершения, чтобы не стартовать браузер раньше очистки.
+     */
+    private static void killStaleChromeDrivers() throws Exception {
+        staleDriversKill.run(() -> {
+            logger.info(">>> (beforeTest) Уничтожает все существующие процессы chromedriver.exe");
+            return Runtime.getRuntime().exec("cmd /c taskkill /IM chromedriver.exe /F").waitFor();
+        });
+    }
+
+    /**
+     * Действие, выполняемое один раз на JVM. Потоки, вызвавшие {@link #run} во время выполнения действия, ждут его
+     * завершения; если действие завершилось ошибкой, следующий вызов повторяет его.
+     */
+    static final class OncePerJvm {
+        private boolean done = false;
+
+        synchronized void run(Callable<?> action) throws Exception {
+            if (done) return;
+            action.call();
+            done = true;
+        }
     }
 
     /**
@@ -120,7 +189,7 @@ public class CucumberTestBeforeAndAfter {
         logger.info(">>> (afterTest) Ошибки консоли браузера:");
         LogEntries logEntries = driver.manage().logs().get(LogType.BROWSER);
         for (LogEntry entry : logEntries) {
-            logger.error(entry.toString());
+            logger.error("{}", entry);
         }
     }
 
@@ -0,0 +1,429 @@
+package steps;
+
+import io.cucumber.junit.Cucumber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.Filterable;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runner.manipulation.Sorter;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerScheduler;
+import pages.AbstractPage;
+import pages.LocatorRegistry;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import static java.lang.String.format;
+
+/**
+ * Запуск сценариев Cucumber в порядке убывания ожидаемой длительности (longest-first).
+ * <p>
+ * Длительности берутся из истории прошлых запусков ({@link ScenarioDurations}). Сценарии всех функций
+ * выполняются в общем пуле из schedule.threads потоков (по умолчанию 1 - последовательно): самые длинные
+ * запускаются первыми, и в конце запуска не остаётся одного длинного сценария, выполняемого в одиночку
+ * (жадное расписание LPT). Функция считается завершённой после завершения всех её сценариев, поэтому события
+ * функций и сценариев для слушателей JUnit и отчётов следуют в обычном порядке.
+ * <p>
+ * Для распределения по нескольким процессам (surefire forks, CI-агенты) задаются schedule.workers - количество
+ * процессов и schedule.worker - номер текущего (с нуля): сценарии распределяются по процессам тем же
+ * жадным алгоритмом, и каждый процесс выполняет только свою часть.
+ * <p>
+ * По окончании запуска в лог выводятся прогнозная и фактическая длительность запуска и идеальная нижняя граница
+ * max(сумма / потоков, самый длинный сценарий).
+ */
+public class DurationOrderedCucumber extends Runner implements Filterable {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    public static final Logger logger = LoggerFactory.getLogger(DurationOrderedCucumber.class);
+
+    // Поле уникального идентификатора описания JUnit (у сценария Cucumber - файл и строка сценария)
+    private static final Field DESCRIPTION_UNIQUE_ID = descriptionUniqueId();
+
+    private final Cucumber cucumber;
+    private final ScenarioDurations durations;
+    private final int threads;
+    // Описания функций и сценариев исходного дерева Cucumber
+    private final Set<Description> features = new HashSet<>();
+    private final Set<Description> scenarios = new HashSet<>();
+    // Идентификаторы сценариев в истории замеров
+    private final Map<Description, String> scenarioIds = new HashMap<>();
+    // Сценарии, ожидающие запуска: заполняется при обходе функций, запускается после сортировки
+    private final List<ScheduledScenario> pending = Collections.synchronizedList(new ArrayList<>());
+    // Функции, ещё не передавшие свои сценарии в пул, и признак передачи для функции текущего потока
+    private volatile CountDownLatch collected;
+    private final ThreadLocal<Boolean> featureCollected = ThreadLocal.withInitial(() -> false);
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    public DurationOrderedCucumber(Class<?> testClass) throws InitializationError {
+        // Локаторы всех страниц проверяются до первого сценария
+        try {
+            LocatorRegistry.validatePages(AbstractPage.class);
+        } catch (IllegalStateException e) {
+            throw new InitializationError(e);
+        }
+        this.cucumber = new Cucumber(testClass);
+        this.durations = ScenarioDurations.load(PerformanceHistory.file(), new File("target/cucumber.json"));
+        this.threads = Math.max(1, Integer.getInteger("schedule.threads", 1));
+        for (Description feature : cucumber.getDescription().getChildren()) {
+            features.add(feature);
+            scenarios.addAll(feature.getChildren());
+            for (Description scenario : feature.getChildren()) scenarioIds.put(scenario, scenarioId(scenario));
+        }
+        partition();
+        cucumber.sort(new LongestFirstSorter());
+        if (threads > 1) cucumber.setScheduler(new PoolScheduler());
+    }
+
+    @Override
+    public Description getDescription() {
+        return cucumber.getDescription();
+    }
+
+    @Override
+    public void filter(Filter filter) throws NoTestsRemainException {
+        cucumber.filter(filter);
+    }
+
+    @Override
+    public void run(RunNotifier notifier) {
+        List<Description> planned = new ArrayList<>();
+        for (Description feature : cucumber.getDescription().getChildren()) planned.addAll(feature.getChildren());
+        Map<Description, Long> started = new ConcurrentHashMap<>();
+        Map<Description, Long> actual = new ConcurrentHashMap<>();
+        RunListener listener = new RunListener() {
+            @Override
+            public void testStarted(Description description) {
+                if (scenarios.contains(description)) started.put(description, System.currentTimeMillis());
+            }
+
+            @Override
+            public void testFinished(Description description) {
+                Long start = started.get(description);
+                if (start != null) actual.put(description, System.currentTimeMillis() - start);
+            }
+        };
+        notifier.addListener(listener);
+        long start = System.currentTimeMillis();
+        try {
+            cucumber.run(notifier);
+        } finally {
+            notifier.removeListener(listener);
+            report(planned, actual, System.currentTimeMillis() - start);
+        }
+    }
+
+    private long estimate(Description description) {
+        if (scenarios.contains(description)) return durations.estimate(scenarioIds.get(description));
+        long total = 0;
+        for (Description child : description.getChildren()) total += estimate(child);
+        return total;
+    }
+
+    /**
+     * Возвращает идентификатор сценария [файл функции]:[строка] ({@link PerformanceHistory#scenarioId}).
+     * Cucumber хранит файл и строку сценария в уникальном идентификаторе описания JUnit, который не доступен
+     * через API, поэтому он читается через reflection; при неудаче используется название сценария.
+     */
+    static String scenarioId(Description scenario) {
+        if (DESCRIPTION_UNIQUE_ID == null) return scenario.getMethodName();
+        try {
+            Object uniqueId = DESCRIPTION_UNIQUE_ID.get(scenario);
+            Field uri = uniqueId.getClass().getDeclaredField("uri");
+            Field line = uniqueId.getClass().getDeclaredField("pickleLine");
+            uri.setAccessible(true);
+            line.setAccessible(true);
+            return PerformanceHistory.scenarioId((URI) uri.get(uniqueId), line.getInt(uniqueId));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return scenario.getMethodName();
+        }
+    }
+
+    private static Field descriptionUniqueId() {
+        try {
+            Field field = Description.class.getDeclaredField("fUniqueId");
+            field.setAccessible(true);
+            return field;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Оставляет только сценарии текущего процесса, если задано распределение по процессам.
+     */
+    private void partition() throws InitializationError {
+        int workers = Integer.getInteger("schedule.workers", 1);
+        if (workers <= 1) return;
+        int worker = Integer.getInteger("schedule.worker", 0);
+        long[] load = new long[workers];
+        Set<Description> mine = new HashSet<>();
+        for (Map.Entry<Description, Integer> assignment : lpt(scenarios, this::estimate, scenarioIds::get, load)
+                .entrySet()) {
+            if (assignment.getValue() == worker) mine.add(assignment.getKey());
+        }
+        logger.info(">>> (schedule) Процесс {} из {}: сценариев - {}, ожидаемая длительность {} мс",
+                worker, workers, mine.size(), load[worker]);
+        try {
+            cucumber.filter(new Filter() {
+                @Override
+                public boolean shouldRun(Description description) {
+                    if (scenarios.contains(description)) return mine.contains(description);
+                    for (Description child : description.getChildren()) if (shouldRun(child)) return true;
+                    return !features.contains(description) && !scenarios.contains(description);
+                }
+
+                @Override
+                public String describe() {
+                    return format("scenarios of worker %d/%d", worker, workers);
+                }
+            });
+        } catch (NoTestsRemainException e) {
+            logger.info(">>> (schedule) Процессу {} сценариев не досталось", worker);
+        }
+    }
+
+    /**
+     * Жадное расписание LPT: элементы в порядке убывания оценки по одному достаются наименее загруженному
+     * исполнителю (при равной загрузке - исполнителю с меньшим номером). Равные оценки упорядочиваются по ключу,
+     * поэтому распределение не зависит от порядка элементов и совпадает во всех процессах.
+     *
+     * @param items    элементы
+     * @param estimate оценка длительности элемента
+     * @param key      уникальный ключ элемента
+     * @param load     загрузка исполнителей (по элементу массива на исполнителя), дополняется назначенными оценками
+     * @return номер исполнителя для каждого элемента в порядке назначения
+     */
+    static <T> Map<T, Integer> lpt(Collection<T> items, ToLongFunction<T> estimate, Function<T, String> key,
+                                   long[] load) {
+        List<T> ordered = new ArrayList<>(items);
+        ordered.sort(Comparator.comparingLong(estimate).reversed().thenComparing(key));
+        Map<T, Integer> assignment = new LinkedHashMap<>();
+        for (T item : ordered) {
+            int least = 0;
+            for (int i = 1; i < load.length; i++) if (load[i] < load[least]) least = i;
+            load[least] += estimate.applyAsLong(item);
+            assignment.put(item, least);
+        }
+        return assignment;
+    }
+
+    private void report(List<Description> planned, Map<Description, Long> actual, long wallMs) {
+        long predicted = lptMakespan(planned, threads);
+        long total = 0;
+        long longest = 0;
+        for (long duration : actual.values()) {
+            total += duration;
+            longest = Math.max(longest, duration);
+        }
+        long ideal = Math.max((total + threads - 1) / threads, longest);
+        logger.info(">>> (schedule) Сценариев: {}, потоков: {}. Прогноз LPT: {} мс, фактически: {} мс, " +
+                        "идеал: {} мс (эффективность {}%)", actual.size(), threads, predicted, wallMs, ideal,
+                wallMs == 0 ? 100 : Math.round(ideal * 100.0 / wallMs));
+    }
+
+    private long lptMakespan(List<Description> planned, int workers) {
+        long[] load = new long[workers];
+        lpt(planned, this::estimate, scenarioIds::get, load);
+        long makespan = 0;
+        for (long value : load) makespan = Math.max(makespan, value);
+        return makespan;
+    }
+
+    /**
+     * Сортирует функции и сценарии по убыванию оценки. Прочие уровни дерева (шаги) не переупорядочиваются.
+     * Функциям назначается планировщик, передающий сценарии в общий пул.
+     */
+    private final class LongestFirstSorter extends Sorter {
+
+        private LongestFirstSorter() {
+            super((a, b) -> {
+                boolean comparable = (features.contains(a) && features.contains(b))
+                        || (scenarios.contains(a) && scenarios.contains(b));
+                return comparable ? Long.compare(estimate(b), estimate(a)) : 0;
+            });
+        }
+
+        @Override
+        public void apply(Object target) {
+            if (threads > 1 && target instanceof ParentRunner
+                    && features.contains(((ParentRunner<?>) target).getDescription())) {
+                ((ParentRunner<?>) target).setScheduler(new FeatureScheduler((ParentRunner<?>) target));
+            }
+            super.apply(target);
+        }
+    }
+
+    /**
+     * Планировщик функции: сценарии не выполняются сразу, а передаются в общий пул вместе с оценкой.
+     * {@link #finished()} возвращает управление только после завершения всех сценариев функции, поэтому
+     * событие окончания функции (testSuiteFinished) наступает после событий её сценариев.
+     */
+    private final class FeatureScheduler implements RunnerScheduler {
+        private final ParentRunner<?> feature;
+        // Сценарии функции в порядке, в котором ParentRunner передаёт их планировщику (после сортировки и фильтрации)
+        private List<Description> children;
+        private final List<ScheduledScenario> own = new ArrayList<>();
+
+        private FeatureScheduler(ParentRunner<?> feature) {
+            this.feature = feature;
+        }
+
+        @Override
+        public void schedule(Runnable childStatement) {
+            if (children == null) children = feature.getDescription().getChildren();
+            int index = own.size();
+            ScheduledScenario scenario = new ScheduledScenario(childStatement,
+                    index < children.size() ? estimate(children.get(index)) : 0);
+            own.add(scenario);
+            pending.add(scenario);
+        }
+
+        @Override
+        public void finished() {
+            featureCollected();
+            awaitAll(own, ScheduledScenario::await);
+        }
+    }
+
+    /**
+     * Планировщик верхнего уровня. Функции выполняются каждая в своём потоке: сначала все функции передают свои
+     * сценарии, затем сценарии выполняются в пуле из schedule.threads потоков в порядке убывания оценки, а каждая
+     * функция ждёт завершения своих сценариев. Планировщик ждёт завершения всех функций.
+     */
+    private final class PoolScheduler implements RunnerScheduler {
+        private final List<Runnable> featureStatements = new ArrayList<>();
+
+        @Override
+        public void schedule(Runnable childStatement) {
+            featureStatements.add(childStatement);
+        }
+
+        @Override
+        public void finished() {
+            collected = new CountDownLatch(featureStatements.size());
+            AtomicInteger featureNumber = new AtomicInteger();
+            ExecutorService featurePool = Executors.newCachedThreadPool(
+                    runnable -> new Thread(runnable, "feature-" + featureNumber.incrementAndGet()));
+            AtomicInteger scenarioNumber = new AtomicInteger();
+            ExecutorService scenarioPool = Executors.newFixedThreadPool(threads,
+                    runnable -> new Thread(runnable, "scenario-" + scenarioNumber.incrementAndGet()));
+            try {
+                List<Future<?>> features = new ArrayList<>(featureStatements.size());
+                for (Runnable statement : featureStatements) {
+                    features.add(featurePool.submit(() -> {
+                        featureCollected.set(false);
+                        try {
+                            statement.run();
+                        } finally {
+                            // Функция, не дошедшая до своих сценариев, не должна задерживать остальные
+                            featureCollected();
+                            featureCollected.remove();
+                        }
+                    }));
+                }
+                collected.await();
+                List<ScheduledScenario> ordered = new ArrayList<>(pending);
+                pending.clear();
+                // Сортировка устойчива: при равных оценках сохраняется порядок функций
+                ordered.sort(Comparator.comparingLong((ScheduledScenario scenario) -> scenario.estimate).reversed());
+                for (ScheduledScenario scenario : ordered) scenarioPool.execute(scenario::run);
+                awaitAll(features, Future::get);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                scenarioPool.shutdown();
+                featurePool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Отмечает, что функция текущего потока передала все свои сценарии (повторные вызовы игнорируются).
+     */
+    private void featureCollected() {
+        if (!featureCollected.get()) {
+            featureCollected.set(true);
+            collected.countDown();
+        }
+    }
+
+    /**
+     * Ждёт завершения всех задач и только после этого сообщает о первой ошибке.
+     */
+    private static <T> void awaitAll(List<T> tasks, Await<T> await) {
+        Throwable failure = null;
+        for (T task : tasks) {
+            try {
+                await.await(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                if (failure == null) failure = e.getCause();
+            }
+        }
+        if (failure != null) throw new IllegalStateException("Ошибка выполнения сценария", failure);
+    }
+
+    private interface Await<T> {
+        void await(T task) throws InterruptedException, ExecutionException;
+    }
+
+    private static final class ScheduledScenario {
+        private final Runnable statement;
+        private final long estimate;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private ScheduledScenario(Runnable statement, long estimate) {
+            this.statement = statement;
+            this.estimate = estimate;
+        }
+
+        private void run() {
+            try {
+                statement.run();
+                done.complete(null);
+            } catch (Throwable e) {
+                done.completeExceptionally(e);
+            }
+        }
+
+        private void await() throws InterruptedException, ExecutionException {
+            done.get();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package steps;
+
+import io.cucumber.junit.Cucumber;
+import io.cucumber.junit.CucumberOptions;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.Description;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+/**
+ * Проверяет расписание {@link DurationOrderedCucumber}: распределение LPT по процессам и сопоставление сценариев
+ * с длительностями из отчёта Cucumber по идентификатору [файл функции]:[строка].
+ */
+public class DurationOrderedCucumberTest {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    private static final String FEATURE = "src/test/resources/schedule/schedule.feature";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    /**
+     * Каждый процесс вычисляет распределение сам, получая сценарии в своём порядке: все процессы должны получить
+     * одно и то же распределение, а каждый сценарий - достаться ровно одному процессу.
+     */
+    @Test
+    public void everyWorkerComputesTheSameSplit() {
+        Random random = new Random(17);
+        Map<String, Long> estimates = new HashMap<>();
+        // Много равных оценок: порядок при равенстве не должен зависеть от процесса
+        for (int i = 0; i < 60; i++) estimates.put("features/f" + i % 7 + ".feature:" + i, 1000L * random.nextInt(6));
+        for (int workers = 1; workers <= 6; workers++) {
+            Map<String, Integer> expected = split(new ArrayList<>(estimates.keySet()), estimates, workers);
+            Set<String> assigned = new HashSet<>();
+            int total = 0;
+            for (int worker = 0; worker < workers; worker++) {
+                List<String> order = new ArrayList<>(estimates.keySet());
+                Collections.shuffle(order, random);
+                Map<String, Integer> split = split(order, estimates, workers);
+                Assert.assertEquals(format("Процесс %d из %d", worker, workers), expected, split);
+                for (Map.Entry<String, Integer> entry : split.entrySet()) {
+                    if (entry.getValue() != worker) continue;
+                    assigned.add(entry.getKey());
+                    total++;
+                }
+            }
+            Assert.assertEquals(estimates.keySet(), assigned);
+            Assert.assertEquals(estimates.size(), total);
+        }
+    }
+
+    @Test
+    public void assignsLongestFirstToLeastLoadedWorker() {
+        Map<String, Long> estimates = new HashMap<>();
+        String[] ids = {"a:1", "b:1", "c:1", "d:1", "e:1"};
+        long[] durations = {10, 9, 8, 2, 1};
+        for (int i = 0; i < ids.length; i++) estimates.put(ids[i], durations[i]);
+        long[] load = new long[2];
+        Map<String, Integer> split = DurationOrderedCucumber.lpt(Arrays.asList(ids), estimates::get, id -> id, load);
+        Assert.assertEquals(Arrays.asList(ids), new ArrayList<>(split.keySet()));
+        Assert.assertEquals(Arrays.asList(0, 1, 1, 0, 0), new ArrayList<>(split.values()));
+        Assert.assertArrayEquals(new long[]{13, 17}, load);
+    }
+
+    /**
+     * Идентификатор сценария из описания JUnit (абсолютный URI файла, прочитанный через reflection) совпадает
+     * с идентификатором из отчёта cucumber.json (относительный URI "file:src/..."), в том числе для одноимённых
+     * сценариев и примеров структуры сценария.
+     */
+    @Test
+    public void matchesScenariosWithCucumberReport() throws Exception {
+        List<Description> scenarios = new ArrayList<>();
+        for (Description feature : new Cucumber(ScheduleFeature.class).getDescription().getChildren())
+            scenarios.addAll(feature.getChildren());
+        List<String> ids = new ArrayList<>();
+        for (Description scenario : scenarios) ids.add(DurationOrderedCucumber.scenarioId(scenario));
+        Assert.assertEquals(Arrays.asList(FEATURE + ":4", FEATURE + ":7", FEATURE + ":10", FEATURE + ":18",
+                FEATURE + ":19"), ids);
+
+        // Фрагмент отчёта в формате JsonFormatter: uri функции и строка сценария, длительности шагов в нс
+        File report = folder.newFile("cucumber.json");
+        StringBuilder elements = new StringBuilder();
+        int[] lines = {4, 7, 10, 18, 19};
+        for (int i = 0; i < lines.length; i++) {
+            if (i > 0) elements.append(',');
+            elements.append(format("{\"type\": \"scenario\", \"line\": %d, \"steps\": [{\"result\": "
+                    + "{\"status\": \"passed\", \"duration\": %d}}]}", lines[i], (i + 1) * 1000000000L));
+        }
+        Files.write(report.toPath(), format("[{\"uri\": \"file:%s\", \"elements\": [%s]}]", FEATURE, elements)
+                .getBytes(StandardCharsets.UTF_8));
+        ScenarioDurations durations = ScenarioDurations.load(new File(folder.getRoot(), "history.jsonl"), report);
+        for (int i = 0; i < ids.size(); i++)
+            Assert.assertEquals(ids.get(i), (i + 1) * 1000L, durations.estimate(ids.get(i)));
+    }
+
+    private static Map<String, Integer> split(List<String> ids, Map<String, Long> estimates, int workers) {
+        return DurationOrderedCucumber.lpt(ids, estimates::get, id -> id, new long[workers]);
+    }
+
+    /**
+     * Функция для построения дерева описаний Cucumber (сценарии не запускаются).
+     */
+    @CucumberOptions(features = FEATURE, glue = "steps.schedule")
+    public static class ScheduleFeature {
+    }
+}
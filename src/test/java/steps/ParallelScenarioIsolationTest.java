@@ -0,0 +1,144 @@
+package steps;
+
+import helpers.ConfigContainer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+
+/**
+ * Проверяет изоляцию состояния сценариев при параллельном запуске: параметры ConfigContainer, временные папки
+ * и однократное уничтожение зависших chromedriver.exe.
+ * <p>
+ * Сценарии имитируются задачами в пуле из стольких же потоков, сколько использует параллельный запуск
+ * (mvn test -Pparallel -Dparallel.threads=8), но не меньше двух. Задачи каждого раунда выполняются одновременно:
+ * все потоки записывают свои значения, встречаются на барьере и только затем читают.
+ */
+public class ParallelScenarioIsolationTest {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    // Количество потоков: как у параллельного запуска сценариев
+    private static final int THREADS = Math.max(2, Math.max(
+            Integer.getInteger("parallel.threads", 4), Integer.getInteger("schedule.threads", 1)));
+    // Количество сценариев на поток
+    private static final int ROUNDS = 50;
+    // Ожидание остальных сценариев на барьере; ошибка одного сценария ломает барьер для остальных
+    private static final long TIMEOUT_SEC = 10;
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    @Test
+    public void parametersDoNotCrossBetweenScenarios() throws Exception {
+        CyclicBarrier written = new CyclicBarrier(THREADS);
+        runScenarios(scenario -> {
+            ConfigContainer config = ConfigContainer.getInstance();
+            Assert.assertTrue(format("Сценарий %d начался с параметрами предыдущего: %s", scenario,
+                    config.getContext().snapshot()), config.getContext().snapshot().isEmpty());
+
+            String id = "scenario-" + scenario;
+            config.setParameter("id", id);
+            config.setParameter("key-" + scenario, id);
+            written.await(TIMEOUT_SEC, TimeUnit.SECONDS);
+
+            // Все потоки записали параметр "id" одновременно - каждый должен видеть только свой
+            ConfigContainer same = ConfigContainer.getInstance();
+            Assert.assertSame("Экземпляр ConfigContainer сменился внутри сценария", config, same);
+            Assert.assertEquals(id, same.getParameter("id"));
+            Map<String, String> parameters = same.getContext().snapshot();
+            Assert.assertEquals(format("Параметры сценария %d: %s", scenario, parameters), 2, parameters.size());
+            Assert.assertEquals(id, parameters.get("key-" + scenario));
+
+            ConfigContainer.removeInstance();
+        });
+    }
+
+    @Test
+    public void tempFoldersAreUniquePerScenario() throws Exception {
+        Set<String> folders = ConcurrentHashMap.newKeySet();
+        CyclicBarrier generated = new CyclicBarrier(THREADS);
+        runScenarios(scenario -> {
+            ConfigContainer config = ConfigContainer.getInstance();
+            config.generatePathToTempFolder();
+            String folder = config.getPathToTempFolderWithRandomName();
+            generated.await(TIMEOUT_SEC, TimeUnit.SECONDS);
+
+            Assert.assertTrue(format("Папка %s выдана двум сценариям", folder), folders.add(folder));
+            Assert.assertEquals(folder, ConfigContainer.getInstance().getPathToTempFolderWithRandomName());
+            ConfigContainer.removeInstance();
+        });
+        Assert.assertEquals(THREADS * ROUNDS, folders.size());
+    }
+
+    @Test
+    public void staleDriversAreKilledOncePerJvm() throws Exception {
+        CucumberTestBeforeAndAfter.OncePerJvm once = new CucumberTestBeforeAndAfter.OncePerJvm();
+        AtomicInteger kills = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        runScenarios(scenario -> {
+            start.await(TIMEOUT_SEC, TimeUnit.SECONDS);
+            once.run(() -> {
+                kills.incrementAndGet();
+                // Пока длится очистка, остальные сценарии не должны стартовать
+                Thread.sleep(50);
+                return finished.incrementAndGet();
+            });
+            Assert.assertEquals("Сценарий стартовал до окончания очистки", 1, finished.get());
+        });
+        Assert.assertEquals(1, kills.get());
+    }
+
+    /**
+     * Выполняет THREADS * ROUNDS сценариев в пуле из THREADS потоков. Если сценарии упали, пробрасывает первую
+     * ошибку проверки (ошибки ожидания на сломанном барьере - лишь её следствие).
+     */
+    private static void runScenarios(Scenario scenario) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS * ROUNDS; i++) {
+                int number = i;
+                futures.add(pool.submit(() -> {
+                    scenario.run(number);
+                    return null;
+                }));
+            }
+            Throwable first = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (first == null || (e.getCause() instanceof AssertionError && !(first instanceof AssertionError)))
+                        first = e.getCause();
+                }
+            }
+            if (first instanceof AssertionError) throw (AssertionError) first;
+            if (first != null) throw new AssertionError("Сценарий завершился ошибкой", first);
+        } finally {
+            pool.shutdownNow();
+            ConfigContainer.removeInstance();
+        }
+    }
+
+    private interface Scenario {
+        void run(int number) throws Exception;
+    }
+}
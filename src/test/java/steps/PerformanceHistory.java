@@ -0,0 +1,129 @@
+package steps;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * История замеров сценариев history.jsonl, общая для {@link PerformanceReportPlugin} (запись и поиск регрессий)
+ * и {@link ScenarioDurations} (оценки для расписания).
+ * <p>
+ * Сценарий в истории определяется идентификатором [файл функции]:[строка сценария] ({@link #scenarioId}), который
+ * не меняется при переименовании сценария и различает одноимённые сценарии. Записи без поля "id" пропускаются.
+ */
+final class PerformanceHistory {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    // Каталог истории по умолчанию (системное свойство perf.history.dir)
+    static final String DEFAULT_DIRECTORY = "target/perf-history";
+
+    private static final String FILE_NAME = "history.jsonl";
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    private PerformanceHistory() {
+    }
+
+    /**
+     * @return каталог истории
+     */
+    static File directory() {
+        return new File(System.getProperty("perf.history.dir", DEFAULT_DIRECTORY));
+    }
+
+    /**
+     * @return файл истории
+     */
+    static File file() {
+        return new File(directory(), FILE_NAME);
+    }
+
+    /**
+     * Идентификатор сценария: файл функции (file: - путь относительно рабочего каталога) и строка.
+     * Абсолютный URI файла ("file:/project/src/...", так его передаёт Cucumber во время запуска) и относительный
+     * ("file:src/...", так он записан в отчёте cucumber.json) дают один идентификатор.
+     *
+     * @param uri  файл функции
+     * @param line строка сценария
+     * @return идентификатор вида "src/test/resources/features/main.feature:12"
+     */
+    static String scenarioId(URI uri, int line) {
+        if (!"file".equals(uri.getScheme())) return uri + ":" + line;
+        String path = uri.isOpaque()
+                ? uri.getSchemeSpecificPart()
+                : Paths.get("").toUri().relativize(uri).getPath();
+        return path + ":" + line;
+    }
+
+    /**
+     * @param uri  файл функции (в том числе относительный URI из отчёта Cucumber)
+     * @param line строка сценария
+     * @return идентификатор сценария
+     */
+    static String scenarioId(String uri, int line) {
+        return scenarioId(URI.create(uri), line);
+    }
+
+    /**
+     * Читает историю: для каждого сценария - записи в порядке запусков.
+     *
+     * @param history файл истории
+     * @return записи по идентификаторам сценариев; пустая карта, если истории нет
+     */
+    static Map<String, List<Map<String, Object>>> read(File history) throws IOException {
+        Map<String, List<Map<String, Object>>> runs = new HashMap<>();
+        if (!history.exists()) return runs;
+        Json json = new Json();
+        try (BufferedReader reader = Files.newBufferedReader(history.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                Map<String, Object> record = json.toType(line, Json.MAP_TYPE);
+                if (record.get("id") instanceof String)
+                    runs.computeIfAbsent((String) record.get("id"), key -> new ArrayList<>()).add(record);
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Возвращает значения поля последних успешных запусков сценария.
+     *
+     * @param runs  записи сценария в порядке запусков
+     * @param field числовое поле записи
+     * @param limit количество запусков
+     * @return значения от последнего запуска к более ранним
+     */
+    static List<Long> lastPassed(List<Map<String, Object>> runs, String field, int limit) {
+        List<Long> values = new ArrayList<>();
+        for (int i = runs.size() - 1; i >= 0 && values.size() < limit; i--) {
+            Map<String, Object> record = runs.get(i);
+            if ("PASSED".equals(record.get("status")) && record.get(field) instanceof Number)
+                values.add(((Number) record.get(field)).longValue());
+        }
+        return values;
+    }
+
+    static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2;
+    }
+}
@@ -0,0 +1,248 @@
+package steps;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.HookTestStep;
+import io.cucumber.plugin.event.HookType;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestCaseStarted;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestStepFinished;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.openqa.selenium.json.Json;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * Плагин Cucumber: замеры сценариев, история запусков и поиск регрессий производительности.
+ * <p>
+ * Для каждого сценария фиксируется общее время, время подготовки (хуки Before: запуск браузера и переход на главную
+ * страницу), время завершения (хуки After) и время каждого шага. Результаты дописываются в историю
+ * [каталог]/history.jsonl (по одной строке на сценарий). По окончании запуска время сценариев и шагов
+ * сравнивается с базовым - медианой последних {@link #DEFAULT_BASELINE_RUNS} запусков из истории - и сценарии
+ * и шаги, замедлившиеся больше порога, попадают в отчёт [каталог]/report.txt.
+ * <p>
+ * Системные свойства: perf.history.dir - каталог истории (по умолчанию target/perf-history),
+ * perf.threshold.percent - порог замедления в процентах (по умолчанию 20), perf.threshold.ms - минимальное
+ * замедление в мс, чтобы не реагировать на шум коротких шагов (по умолчанию 500), perf.baseline.runs - количество
+ * запусков для базового значения.
+ */
+public class PerformanceReportPlugin implements ConcurrentEventListener {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    public static final Logger logger = LoggerFactory.getLogger(PerformanceReportPlugin.class);
+
+    private static final int DEFAULT_BASELINE_RUNS = 5;
+
+    private final Json json = new Json();
+    private final File directory = PerformanceHistory.directory();
+    private final double thresholdPercent = Double.parseDouble(System.getProperty("perf.threshold.percent", "20"));
+    private final long thresholdMs = Long.parseLong(System.getProperty("perf.threshold.ms", "500"));
+    private final int baselineRuns = Integer.parseInt(
+            System.getProperty("perf.baseline.runs", String.valueOf(DEFAULT_BASELINE_RUNS)));
+    private final String runId = UUID.randomUUID().toString();
+
+    // Сценарии, которые выполняются сейчас
+    private final ConcurrentHashMap<UUID, ScenarioTiming> running = new ConcurrentHashMap<>();
+    // Завершённые сценарии текущего запуска
+    private final List<ScenarioTiming> finished = Collections.synchronizedList(new ArrayList<>());
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseStarted.class, this::onTestCaseStarted);
+        publisher.registerHandlerFor(TestStepFinished.class, this::onTestStepFinished);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::onTestCaseFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> onTestRunFinished());
+    }
+
+    private void onTestCaseStarted(TestCaseStarted event) {
+        running.put(event.getTestCase().getId(), new ScenarioTiming(event.getTestCase(), event.getInstant()));
+    }
+
+    private void onTestStepFinished(TestStepFinished event) {
+        ScenarioTiming timing = running.get(event.getTestCase().getId());
+        if (timing == null) return;
+        long ms = event.getResult().getDuration().toMillis();
+        if (event.getTestStep() instanceof HookTestStep) {
+            HookType type = ((HookTestStep) event.getTestStep()).getHookType();
+            if (type == HookType.BEFORE) timing.setupMs += ms;
+            else if (type == HookType.AFTER) timing.teardownMs += ms;
+        } else if (event.getTestStep() instanceof PickleStepTestStep) {
+            PickleStepTestStep step = (PickleStepTestStep) event.getTestStep();
+            // Номер шага в ключе различает одинаковые шаги одного сценария
+            timing.steps.put(format("%d. %s%s", timing.steps.size() + 1, step.getStep().getKeyword(),
+                    step.getStep().getText()), ms);
+        }
+    }
+
+    private void onTestCaseFinished(TestCaseFinished event) {
+        ScenarioTiming timing = running.remove(event.getTestCase().getId());
+        if (timing == null) return;
+        timing.status = event.getResult().getStatus().name();
+        timing.wallMs = Duration.between(timing.started, event.getInstant()).toMillis();
+        finished.add(timing);
+    }
+
+    private void onTestRunFinished() {
+        if (finished.isEmpty()) return;
+        directory.mkdirs();
+        File history = PerformanceHistory.file();
+        try {
+            Map<String, List<Map<String, Object>>> previous = PerformanceHistory.read(history);
+            List<String> report = compare(previous);
+            writeReport(report);
+            appendHistory(history);
+        } catch (IOException e) {
+            logger.warn(">>> (perf) Не удалось обработать историю {}: {}", history, e.toString());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> compare(Map<String, List<Map<String, Object>>> previous) {
+        List<String> regressions = new ArrayList<>();
+        int compared = 0;
+        for (ScenarioTiming timing : finished) {
+            List<Map<String, Object>> runs = previous.get(timing.id);
+            if (runs == null) continue;
+            List<Map<String, Object>> baseline = baseline(runs);
+            if (baseline.isEmpty()) continue;
+            compared++;
+
+            List<Long> wall = new ArrayList<>();
+            Map<String, List<Long>> steps = new HashMap<>();
+            for (Map<String, Object> record : baseline) {
+                wall.add(((Number) record.get("wallMs")).longValue());
+                Map<String, Object> recordSteps = (Map<String, Object>) record.get("steps");
+                if (recordSteps == null) continue;
+                for (Map.Entry<String, Object> step : recordSteps.entrySet())
+                    steps.computeIfAbsent(step.getKey(), key -> new ArrayList<>())
+                            .add(((Number) step.getValue()).longValue());
+            }
+            String regression = check("Сценарий " + timing.key, timing.wallMs, PerformanceHistory.median(wall));
+            if (regression != null) regressions.add(regression);
+            for (Map.Entry<String, Long> step : timing.steps.entrySet()) {
+                List<Long> stepBaseline = steps.get(step.getKey());
+                if (stepBaseline == null) continue;
+                regression = check(format("  шаг [%s] сценария %s", step.getKey(), timing.key), step.getValue(),
+                        PerformanceHistory.median(stepBaseline));
+                if (regression != null) regressions.add(regression);
+            }
+        }
+        List<String> report = new ArrayList<>();
+        report.add(format("Запуск %s: сценариев - %d, сравнено с историей - %d, порог - %.0f%% и %d мс",
+                runId, finished.size(), compared, thresholdPercent, thresholdMs));
+        if (regressions.isEmpty()) report.add("Замедлений не обнаружено");
+        else report.addAll(regressions);
+        return report;
+    }
+
+    /**
+     * Базовое значение считается только по успешным запускам.
+     *
+     * @param runs записи сценария в порядке запусков
+     * @return последние perf.baseline.runs успешных запусков, от последнего к более ранним
+     */
+    List<Map<String, Object>> baseline(List<Map<String, Object>> runs) {
+        List<Map<String, Object>> baseline = new ArrayList<>();
+        for (int i = runs.size() - 1; i >= 0 && baseline.size() < baselineRuns; i--) {
+            if ("PASSED".equals(runs.get(i).get("status"))) baseline.add(runs.get(i));
+        }
+        return baseline;
+    }
+
+    /**
+     * Замедление - превышение базового значения одновременно больше чем на perf.threshold.percent
+     * и не меньше чем на perf.threshold.ms.
+     *
+     * @return описание замедления или null, если замедление в пределах порога
+     */
+    String check(String what, long currentMs, long baselineMs) {
+        long delta = currentMs - baselineMs;
+        if (delta < thresholdMs || currentMs <= baselineMs * (1 + thresholdPercent / 100)) return null;
+        return format("ЗАМЕДЛЕНИЕ %s: %d мс при базовом %d мс (+%d мс, +%.0f%%)", what, currentMs, baselineMs, delta,
+                baselineMs == 0 ? 100.0 : delta * 100.0 / baselineMs);
+    }
+
+    private void writeReport(List<String> report) throws IOException {
+        File file = new File(directory, "report.txt");
+        Files.write(file.toPath(), report, StandardCharsets.UTF_8);
+        for (String line : report) {
+            if (line.startsWith("ЗАМЕДЛЕНИЕ") || line.startsWith("  шаг")) logger.warn(">>> (perf) {}", line);
+            else logger.info(">>> (perf) {}", line);
+        }
+        logger.info(">>> (perf) Отчёт: {}", file);
+    }
+
+    private void appendHistory(File history) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(history.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            synchronized (finished) {
+                for (ScenarioTiming timing : finished) {
+                    Map<String, Object> record = new LinkedHashMap<>();
+                    record.put("run", runId);
+                    record.put("timestamp", timing.started.toString());
+                    record.put("id", timing.id);
+                    record.put("scenario", timing.key);
+                    record.put("name", timing.name);
+                    record.put("status", timing.status);
+                    record.put("wallMs", timing.wallMs);
+                    record.put("setupMs", timing.setupMs);
+                    record.put("teardownMs", timing.teardownMs);
+                    record.put("steps", timing.steps);
+                    writer.write(json.toJson(record).replace('\n', ' '));
+                    writer.write(System.lineSeparator());
+                }
+            }
+        }
+    }
+
+    /**
+     * Замеры одного сценария. Шаги сценария выполняются в одном потоке, поэтому поля не синхронизируются.
+     */
+    private static final class ScenarioTiming {
+        // Идентификатор сценария в истории и название для отчёта
+        private final String id;
+        private final String key;
+        private final String name;
+        private final Instant started;
+        private final Map<String, Long> steps = new LinkedHashMap<>();
+        private String status;
+        private long wallMs;
+        private long setupMs;
+        private long teardownMs;
+
+        private ScenarioTiming(TestCase testCase, Instant started) {
+            this.id = PerformanceHistory.scenarioId(testCase.getUri(), testCase.getLocation().getLine());
+            this.key = format("%s:%d %s", testCase.getUri(), testCase.getLocation().getLine(), testCase.getName());
+            this.name = testCase.getName();
+            this.started = started;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package steps;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Проверяет правило поиска регрессий {@link PerformanceReportPlugin} с порогами по умолчанию: базовое значение -
+ * медиана последних 5 успешных запусков, замедление - больше 20% и не меньше 500 мс одновременно.
+ */
+public class PerformanceReportPluginTest {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    private static final String SCENARIO = "Сценарий src/test/resources/features/main.feature:12";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final PerformanceReportPlugin plugin = new PerformanceReportPlugin();
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    /**
+     * Упавшие и пропущенные запуски и успешные запуски старше пяти последних в базовое значение не входят.
+     */
+    @Test
+    public void baselineIsMedianOfLastFivePassedRuns() {
+        List<Map<String, Object>> runs = Arrays.asList(
+                run("PASSED", 5000), run("PASSED", 1000), run("FAILED", 9000), run("PASSED", 1100),
+                run("PASSED", 900), run("SKIPPED", 0), run("PASSED", 1200), run("FAILED", 50), run("PASSED", 1000));
+        List<Map<String, Object>> baseline = plugin.baseline(runs);
+        List<Long> wall = new ArrayList<>();
+        for (Map<String, Object> record : baseline) wall.add(((Number) record.get("wallMs")).longValue());
+        Assert.assertEquals(Arrays.asList(1000L, 1200L, 900L, 1100L, 1000L), wall);
+        Assert.assertEquals(1000, PerformanceHistory.median(wall));
+
+        Assert.assertEquals(Collections.singletonList(runs.get(0)),
+                plugin.baseline(Arrays.asList(runs.get(0), run("FAILED", 10), run("UNDEFINED", 10))));
+        Assert.assertTrue(plugin.baseline(Collections.singletonList(run("FAILED", 1000))).isEmpty());
+    }
+
+    @Test
+    public void reportsOnlyWhenBothThresholdsAreExceeded() {
+        // Больше 20%, но меньше 500 мс
+        Assert.assertNull(plugin.check(SCENARIO, 1499, 1000));
+        Assert.assertNull(plugin.check(SCENARIO, 599, 100));
+        // Больше 500 мс, но не больше 20%
+        Assert.assertNull(plugin.check(SCENARIO, 6000, 5000));
+        Assert.assertNull(plugin.check(SCENARIO, 900, 1000));
+
+        Assert.assertEquals("ЗАМЕДЛЕНИЕ " + SCENARIO + ": 1500 мс при базовом 1000 мс (+500 мс, +50%)",
+                plugin.check(SCENARIO, 1500, 1000));
+        Assert.assertEquals("ЗАМЕДЛЕНИЕ " + SCENARIO + ": 6001 мс при базовом 5000 мс (+1001 мс, +20%)",
+                plugin.check(SCENARIO, 6001, 5000));
+        Assert.assertEquals("ЗАМЕДЛЕНИЕ " + SCENARIO + ": 600 мс при базовом 0 мс (+600 мс, +100%)",
+                plugin.check(SCENARIO, 600, 0));
+    }
+
+    @Test
+    public void historySkipsRecordsWithoutId() throws Exception {
+        File history = folder.newFile("history.jsonl");
+        Files.write(history.toPath(), Arrays.asList(
+                "{\"id\": \"src/a.feature:3\", \"status\": \"PASSED\", \"wallMs\": 10}",
+                "{\"scenario\": \"file:src/a.feature:3 Сценарий\", \"status\": \"PASSED\", \"wallMs\": 20}",
+                "",
+                "{\"id\": \"src/a.feature:3\", \"status\": \"FAILED\", \"wallMs\": 30}"), StandardCharsets.UTF_8);
+        Map<String, List<Map<String, Object>>> runs = PerformanceHistory.read(history);
+        Assert.assertEquals(Collections.singleton("src/a.feature:3"), runs.keySet());
+        Assert.assertEquals(Arrays.asList(30L, 10L), Arrays.asList(
+                ((Number) runs.get("src/a.feature:3").get(1).get("wallMs")).longValue(),
+                ((Number) runs.get("src/a.feature:3").get(0).get("wallMs")).longValue()));
+    }
+
+    private static Map<String, Object> run(String status, long wallMs) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("status", status);
+        record.put("wallMs", wallMs);
+        return record;
+    }
+}
@@ -0,0 +1,123 @@
+package steps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.openqa.selenium.json.Json;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Оценки длительности сценариев по прошлым запускам.
+ * <p>
+ * Источники: история {@link PerformanceReportPlugin} (медиана последних успешных запусков) и, для сценариев,
+ * которых нет в истории, отчёт Cucumber target/cucumber.json предыдущего запуска. Сценарии сопоставляются
+ * по идентификатору [файл функции]:[строка] ({@link PerformanceHistory#scenarioId}); для сценариев без данных
+ * используется оценка по умолчанию.
+ */
+final class ScenarioDurations {
+
+    /******************************************************************************************************************
+     *                                            Поля класса
+     ******************************************************************************************************************/
+
+    public static final Logger logger = LoggerFactory.getLogger(ScenarioDurations.class);
+
+    // Оценка по умолчанию, если нет ни одного замера
+    private static final long FALLBACK_ESTIMATE_MS = 60000;
+    // Количество последних запусков из истории для оценки
+    private static final int HISTORY_RUNS = 5;
+
+    private final Map<String, Long> estimates;
+    private final long defaultEstimateMs;
+
+    /******************************************************************************************************************
+     *                                           Методы класса
+     ******************************************************************************************************************/
+
+    private ScenarioDurations(Map<String, Long> estimates, long defaultEstimateMs) {
+        this.estimates = estimates;
+        this.defaultEstimateMs = defaultEstimateMs;
+    }
+
+    /**
+     * Загружает оценки из истории и отчёта Cucumber.
+     *
+     * @param historyFile    история замеров сценариев (jsonl)
+     * @param cucumberReport отчёт Cucumber в формате json
+     * @return оценки длительности
+     */
+    static ScenarioDurations load(File historyFile, File cucumberReport) {
+        Map<String, List<Long>> samples = new HashMap<>();
+        Json json = new Json();
+        try {
+            readCucumberReport(json, cucumberReport, samples);
+            // История точнее отчёта (учитывает несколько запусков), поэтому перекрывает его
+            readHistory(historyFile, samples);
+        } catch (IOException | RuntimeException e) {
+            logger.warn(">>> (schedule) Не удалось прочитать длительности прошлых запусков: {}", e.toString());
+        }
+        Map<String, Long> estimates = new HashMap<>();
+        for (Map.Entry<String, List<Long>> entry : samples.entrySet())
+            estimates.put(entry.getKey(), PerformanceHistory.median(entry.getValue()));
+        long defaultEstimate = Long.getLong("schedule.default.ms", estimates.isEmpty()
+                ? FALLBACK_ESTIMATE_MS : PerformanceHistory.median(new ArrayList<>(estimates.values())));
+        logger.info(">>> (schedule) Известна длительность {} сценариев, оценка по умолчанию {} мс",
+                estimates.size(), defaultEstimate);
+        return new ScenarioDurations(estimates, defaultEstimate);
+    }
+
+    /**
+     * @param scenarioId идентификатор сценария ({@link PerformanceHistory#scenarioId})
+     * @return оценка длительности в мс
+     */
+    long estimate(String scenarioId) {
+        Long estimate = estimates.get(scenarioId);
+        return estimate != null ? estimate : defaultEstimateMs;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void readCucumberReport(Json json, File report, Map<String, List<Long>> samples) throws IOException {
+        if (!report.exists()) return;
+        String content = new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8);
+        if (content.trim().isEmpty()) return;
+        List<Map<String, Object>> features = json.toType(content, Json.LIST_OF_MAPS_TYPE);
+        for (Map<String, Object> feature : features) {
+            List<Map<String, Object>> elements = (List<Map<String, Object>>) feature.get("elements");
+            if (elements == null || !(feature.get("uri") instanceof String)) continue;
+            for (Map<String, Object> element : elements) {
+                if (!"scenario".equals(element.get("type")) || !(element.get("line") instanceof Number)) continue;
+                long nanos = sumDurations(element.get("before")) + sumDurations(element.get("steps"))
+                        + sumDurations(element.get("after"));
+                String id = PerformanceHistory.scenarioId((String) feature.get("uri"),
+                        ((Number) element.get("line")).intValue());
+                samples.computeIfAbsent(id, key -> new ArrayList<>()).add(nanos / 1000000);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long sumDurations(Object steps) {
+        if (!(steps instanceof List)) return 0;
+        long nanos = 0;
+        for (Map<String, Object> step : (List<Map<String, Object>>) steps) {
+            Map<String, Object> result = (Map<String, Object>) step.get("result");
+            if (result != null && result.get("duration") instanceof Number)
+                nanos += ((Number) result.get("duration")).longValue();
+        }
+        return nanos;
+    }
+
+    private static void readHistory(File history, Map<String, List<Long>> samples) throws IOException {
+        for (Map.Entry<String, List<Map<String, Object>>> entry : PerformanceHistory.read(history).entrySet()) {
+            List<Long> values = PerformanceHistory.lastPassed(entry.getValue(), "wallMs", HISTORY_RUNS);
+            if (!values.isEmpty()) samples.put(entry.getKey(), values);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+# Функция для DurationOrderedCucumberTest: сценарии только разбираются и не запускаются
+Feature: Расписание сценариев
+
+  Scenario: Первый сценарий
+    Given шаг без реализации
+
+  Scenario: Одноимённый сценарий
+    Given шаг без реализации
+
+  Scenario: Одноимённый сценарий
+    Given шаг без реализации
+
+  Scenario Outline: Сценарий с примерами <n>
+    Given шаг без реализации <n>
+
+    Examples:
+      | n |
+      | 1 |
+      | 2 |